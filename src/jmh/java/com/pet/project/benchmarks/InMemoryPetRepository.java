@@ -0,0 +1,66 @@
+package com.pet.project.benchmarks;
+
+import com.pet.project.entities.PetEntity;
+import com.pet.project.mappers.PetMapper;
+import com.pet.project.repos.PetRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map backed stand-in for {@link PetRepository}, so the service code can be measured without a
+ * database. Only the methods used by the benchmarked paths are implemented.
+ */
+final class InMemoryPetRepository {
+
+    private final Map<Long, PetEntity> pets = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final PetMapper petMapper = new PetMapper();
+
+    @SuppressWarnings("unchecked")
+    PetRepository repository() {
+        return (PetRepository) Proxy.newProxyInstance(PetRepository.class.getClassLoader(),
+                new Class<?>[]{PetRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(pets.get((Long) args[0]));
+                    case "findRowByIdForUpdate" -> Optional.ofNullable(pets.get((Long) args[0])).map(petMapper::toRow);
+                    case "save" -> save((PetEntity) args[0]);
+                    case "patchById" -> patch((Long) args[0], (Map<String, Object>) args[1]);
+                    case "deletePet" -> pets.remove((Long) args[0]) == null ? 0 : 1;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryPetRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private int patch(Long petId, Map<String, Object> attributes) {
+        PetEntity pet = pets.get(petId);
+        if (pet == null) {
+            return 0;
+        }
+        // Same values the UPDATE of PetRepositoryCustomImpl.patchById writes.
+        petMapper.toPatchAttributes(attributes).forEach((attribute, value) -> {
+            switch (attribute) {
+                case PetMapper.FIELD_NAME -> pet.setName((String) value);
+                case PetMapper.FIELD_SPECIES -> pet.setSpecies((String) value);
+                case PetMapper.FIELD_OWNER_NAME -> pet.setOwnerName((String) value);
+                case PetMapper.FIELD_AGE -> pet.setAge((Integer) value);
+                default -> throw new IllegalStateException(attribute);
+            }
+        });
+        pet.setVersion(pet.getVersion() + 1);
+        return 1;
+    }
+
+    PetEntity save(PetEntity pet) {
+        if (pet.getPetId() == null) {
+            pet.setPetId(ids.incrementAndGet());
+        }
+        pets.put(pet.getPetId(), pet);
+        return pet;
+    }
+}
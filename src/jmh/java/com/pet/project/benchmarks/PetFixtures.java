@@ -0,0 +1,60 @@
+package com.pet.project.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pet.project.entities.PetEntity;
+import com.pet.project.transferobjects.requests.PetRequest;
+import com.pet.project.transferobjects.responses.PetResponse;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test data shared by the benchmarks.
+ */
+final class PetFixtures {
+
+    private static final String[] SPECIES = {"dog", "cat", "parrot", "rabbit", "hamster"};
+
+    private PetFixtures() {
+    }
+
+    /** Same defaults as the mapper Spring Boot configures for the application. */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    static PetRequest request(int i) {
+        return PetRequest.builder()
+                .name("pet-" + i)
+                .species(SPECIES[i % SPECIES.length])
+                .ownerName("owner-" + (i % 100))
+                .age(i % 20)
+                .build();
+    }
+
+    static PetEntity entity(long id) {
+        int i = (int) id;
+        return PetEntity.builder()
+                .petId(id)
+                .name("pet-" + i)
+                .species(SPECIES[i % SPECIES.length])
+                .ownerName("owner-" + (i % 100))
+                .age(i % 20)
+                .version(0L)
+                .build();
+    }
+
+    static List<PetResponse> responses(int size) {
+        List<PetResponse> responses = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            responses.add(PetResponse.builder()
+                    .petId((long) i)
+                    .name("pet-" + i)
+                    .species(SPECIES[i % SPECIES.length])
+                    .age(i % 20)
+                    .build());
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,59 @@
+package com.pet.project.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pet.project.entities.PetEntity;
+import com.pet.project.mappers.PetMapper;
+import com.pet.project.transferobjects.requests.PetRequest;
+import com.pet.project.transferobjects.responses.PetResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity and DTO conversion, the hand-written {@link PetMapper} against the
+ * {@code ObjectMapper.convertValue} round trip it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PetMappingBenchmark {
+
+    private PetMapper petMapper;
+    private ObjectMapper objectMapper;
+    private PetEntity entity;
+    private PetRequest request;
+
+    @Setup
+    public void setUp() {
+        petMapper = new PetMapper();
+        objectMapper = PetFixtures.objectMapper();
+        entity = PetFixtures.entity(42L);
+        request = PetFixtures.request(42);
+    }
+
+    @Benchmark
+    public PetResponse entityToResponseMapper() {
+        return petMapper.toResponse(entity);
+    }
+
+    @Benchmark
+    public PetResponse entityToResponseConvertValue() {
+        return objectMapper.convertValue(entity, PetResponse.class);
+    }
+
+    @Benchmark
+    public PetEntity requestToEntityMapper() {
+        return petMapper.toEntity(request);
+    }
+
+    @Benchmark
+    public PetEntity requestToEntityConvertValue() {
+        return objectMapper.convertValue(request, PetEntity.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.pet.project.benchmarks;
+
+import com.pet.project.caches.PetCache;
+import com.pet.project.caches.PetReadCoalescer;
+import com.pet.project.changes.PetChangeFeed;
+import com.pet.project.config.BatchProperties;
+import com.pet.project.config.CoalescingProperties;
+import com.pet.project.config.LookupProperties;
+import com.pet.project.config.PaginationProperties;
+import com.pet.project.config.PetChangesProperties;
+import com.pet.project.config.PetCacheProperties;
+import com.pet.project.config.PetStatsProperties;
+import com.pet.project.mappers.PetMapper;
+import com.pet.project.services.PetService;
+import com.pet.project.services.impl.PetServiceImpl;
+import com.pet.project.stats.PetStats;
+import com.pet.project.transferobjects.responses.PetResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PetService#patchPet} end to end against an in-memory repository, so the numbers show the
+ * cost of the service and mapping code without database latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PetPatchBenchmark {
+
+    private static final int PETS = 1000;
+
+    private PetService petService;
+    private Map<String, Object> ageUpdate;
+    private Map<String, Object> fullUpdate;
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        InMemoryPetRepository repository = new InMemoryPetRepository();
+        for (int i = 0; i < PETS; i++) {
+            repository.save(PetFixtures.entity(i + 1L));
+        }
+        PetCacheProperties cacheProperties = new PetCacheProperties();
+        cacheProperties.setEnabled(false);
+        PetStatsProperties statsProperties = new PetStatsProperties();
+        statsProperties.setEnabled(false);
+        petService = new PetServiceImpl(PetFixtures.objectMapper(), repository.repository(), new PaginationProperties(),
+                null, null, new BatchProperties(), new PetCache(cacheProperties), new PetMapper(), new LookupProperties(),
+                new PetStats(statsProperties, repository.repository(), null), new PetChangeFeed(new PetChangesProperties()),
+                new PetReadCoalescer(new CoalescingProperties()));
+        ageUpdate = Map.of("age", 7);
+        fullUpdate = Map.of("name", "rex", "species", "dog", "ownerName", "bob", "age", 7);
+    }
+
+    @Benchmark
+    public ResponseEntity<PetResponse> patchSingleField() {
+        return petService.patchPet(nextPetId(), ageUpdate, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<PetResponse> patchAllFields() {
+        return petService.patchPet(nextPetId(), fullUpdate, null);
+    }
+
+    private long nextPetId() {
+        nextId = nextId % PETS + 1;
+        return nextId;
+    }
+}
@@ -0,0 +1,206 @@
+package com.pet.project.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pet.project.config.AdmissionProperties;
+import com.pet.project.controllers.PetControllerAdvice;
+import com.pet.project.transferobjects.responses.ErrorResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control in front of the pet endpoints, so one client looping on an expensive endpoint cannot
+ * take the connection pool from everybody else.
+ * <p>
+ * Every client has a token bucket, each request takes the tokens of its {@link CostClass}; a client that
+ * runs out gets 429 with the time until it has enough tokens again. Admitted requests then need a slot of
+ * their class, shared by all clients; when the class is saturated requests are shed with 503 after a
+ * bounded wait, or at once when that wait could not be met anyway. Database connections are bounded
+ * further down by {@code pet.db-admission}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    public static final String RATE_LIMITED = "The client sent too many requests, retry later.";
+    public static final String OVERLOADED = "The service is overloaded, retry later.";
+    public static final String REJECTED_METRIC = "pet.admission.rejected";
+
+    private static final String PETS = "/pet";
+    private static final String CHANGES = "/pet/changes";
+    private static final Pattern PET_BY_ID = Pattern.compile("/pet/\\d+");
+    private static final Pattern INGEST_STATUS = Pattern.compile("/pet/ingest/[^/]+");
+    private static final List<String> PAGE_PARAMETERS = List.of("limit", "after", "fields");
+
+    private final AdmissionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, TokenBucket> buckets;
+    private final Map<CostClass, ConcurrencyLimiter> limiters = new EnumMap<>(CostClass.class);
+
+    public AdmissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .build();
+        for (CostClass costClass : CostClass.values()) {
+            AdmissionProperties.Limits limits = properties.limits(costClass);
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter(limits.getMaxConcurrent(), limits.getMaxQueued(),
+                    limits.getQueueTimeout().toNanos());
+            limiters.put(costClass, limiter);
+            String tag = tag(costClass);
+            Gauge.builder("pet.admission.in.flight", limiter, ConcurrencyLimiter::getInFlight)
+                    .description("Requests holding a slot of their cost class")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("pet.admission.queued", limiter, ConcurrencyLimiter::getQueued)
+                    .description("Requests waiting for a slot of their cost class")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /** Change feed subscriptions stay open for minutes, they would hold a slot the whole time. */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = path(request);
+        return !properties.isEnabled() || !(path.equals(PETS) || path.startsWith(PETS + "/")) || path.equals(CHANGES);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CostClass costClass = classify(request);
+        long now = System.nanoTime();
+        long refillNanos = buckets.get(clientKey(request),
+                        client -> new TokenBucket(properties.getBurst(), properties.getRate(), now))
+                .tryTake(properties.limits(costClass).getCost(), now);
+        if (refillNanos > 0) {
+            reject(response, costClass, "rate", HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds(refillNanos),
+                    PetControllerAdvice.TOO_MANY_REQUESTS, RATE_LIMITED);
+            return;
+        }
+        ConcurrencyLimiter limiter = limiters.get(costClass);
+        ConcurrencyLimiter.Outcome outcome = limiter.acquire();
+        if (outcome != ConcurrencyLimiter.Outcome.ADMITTED) {
+            reject(response, costClass, outcome == ConcurrencyLimiter.Outcome.QUEUE_FULL ? "queue" : "deadline",
+                    HttpStatus.SERVICE_UNAVAILABLE, PetControllerAdvice.RETRY_AFTER_SECONDS,
+                    PetControllerAdvice.SERVICE_UNAVAILABLE, OVERLOADED);
+            return;
+        }
+        long started = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                // Streamed responses such as the export keep their slot until the stream is complete.
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limiter, started));
+            } else {
+                limiter.release(System.nanoTime() - started);
+            }
+        }
+    }
+
+    private static CostClass classify(HttpServletRequest request) {
+        String path = path(request);
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        if (HttpMethod.GET.equals(method)) {
+            if (path.equals(PETS) && PAGE_PARAMETERS.stream().noneMatch(request.getParameterMap()::containsKey)
+                    || path.equals("/pet/export")) {
+                return CostClass.EXPENSIVE;
+            }
+            if (PET_BY_ID.matcher(path).matches() || INGEST_STATUS.matcher(path).matches()
+                    || path.equals("/pet/stats") || path.equals("/pet/cache/stats")) {
+                return CostClass.CHEAP;
+            }
+        }
+        if (HttpMethod.POST.equals(method) && (path.equals("/pet/batch") || path.equals("/pet/lookup"))) {
+            return CostClass.EXPENSIVE;
+        }
+        return CostClass.STANDARD;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        if (!properties.isTrustClientHeader()) {
+            return request.getRemoteAddr();
+        }
+        String client = request.getHeader(properties.getClientHeader());
+        return client == null || client.isBlank() ? request.getRemoteAddr() : client;
+    }
+
+    private void reject(HttpServletResponse response, CostClass costClass, String reason, HttpStatus status,
+                        String retryAfter, String message, String detail) throws IOException {
+        Counter.builder(REJECTED_METRIC)
+                .description("Requests turned away by admission control")
+                .tag("class", tag(costClass))
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.builder()
+                .message(message)
+                .details(List.of(detail))
+                .build());
+    }
+
+    private static String retryAfterSeconds(long nanos) {
+        return Long.toString(Math.max(1, Math.ceilDiv(nanos, TimeUnit.SECONDS.toNanos(1))));
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String tag(CostClass costClass) {
+        return costClass.name().toLowerCase();
+    }
+
+    private record ReleaseOnComplete(ConcurrencyLimiter limiter, long started) implements AsyncListener {
+
+        /** Also follows a timeout or an error. */
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(System.nanoTime() - started);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.pet.project.admission;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the requests served at the same time, with a short FIFO queue in front. A request is turned away
+ * without waiting when the queue is full, or when the requests ahead of it cannot be served within its
+ * queue timeout at the average time a request holds its slot.
+ */
+public class ConcurrencyLimiter {
+
+    public enum Outcome {
+        ADMITTED,
+        QUEUE_FULL,
+        DEADLINE_EXCEEDED
+    }
+
+    /** Weight of the newest hold time in the moving average, as a shift: 1/8. */
+    private static final int AVERAGE_SHIFT = 3;
+
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final AtomicLong averageHoldNanos = new AtomicLong();
+
+    public ConcurrencyLimiter(int maxConcurrent, int maxQueued, long queueTimeoutNanos) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = queueTimeoutNanos;
+    }
+
+    /** On {@link Outcome#ADMITTED} the caller must {@link #release} once it is done. */
+    public Outcome acquire() {
+        try {
+            if (permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                return Outcome.ADMITTED;
+            }
+            int queued = permits.getQueueLength();
+            if (queued >= maxQueued) {
+                return Outcome.QUEUE_FULL;
+            }
+            if (expectedWaitNanos(queued) > queueTimeoutNanos) {
+                return Outcome.DEADLINE_EXCEEDED;
+            }
+            return permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)
+                    ? Outcome.ADMITTED : Outcome.DEADLINE_EXCEEDED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.DEADLINE_EXCEEDED;
+        }
+    }
+
+    /**
+     * @param heldNanos how long the slot was held, feeds the wait estimate
+     */
+    public void release(long heldNanos) {
+        averageHoldNanos.getAndUpdate(average -> average + ((heldNanos - average) >> AVERAGE_SHIFT));
+        permits.release();
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return permits.getQueueLength();
+    }
+
+    /** The queue ahead plus this request drain {@code maxConcurrent} at a time. */
+    private long expectedWaitNanos(int queued) {
+        return (queued + 1L) * averageHoldNanos.get() / maxConcurrent;
+    }
+}
@@ -0,0 +1,13 @@
+package com.pet.project.admission;
+
+/**
+ * How much a request costs the service, each class has its own token cost and concurrency limit.
+ */
+public enum CostClass {
+    /** Answered from the cache or from one row by primary key. */
+    CHEAP,
+    /** Pages, searches and single writes. */
+    STANDARD,
+    /** Reads or writes the whole table or many rows: the full list, the export, lookups and batches. */
+    EXPENSIVE
+}
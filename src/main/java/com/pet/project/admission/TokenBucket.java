@@ -0,0 +1,36 @@
+package com.pet.project.admission;
+
+/**
+ * Tokens refill continuously at a fixed rate up to the capacity. The refill is computed when tokens are
+ * taken, so an idle bucket costs nothing.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    public TokenBucket(double capacity, double tokensPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000.0;
+        this.tokens = capacity;
+        this.refilledAt = nowNanos;
+    }
+
+    /**
+     * Takes the tokens if there are enough. A cost above the capacity takes a full bucket.
+     *
+     * @return 0 when the tokens were taken, otherwise the nanoseconds until there will be enough
+     */
+    public synchronized long tryTake(double cost, long nowNanos) {
+        tokens = Math.min(capacity, tokens + (nowNanos - refilledAt) * tokensPerNano);
+        refilledAt = nowNanos;
+        double needed = Math.min(cost, capacity);
+        if (tokens >= needed) {
+            tokens -= needed;
+            return 0;
+        }
+        return (long) Math.ceil((needed - tokens) / tokensPerNano);
+    }
+}
@@ -0,0 +1,140 @@
+package com.pet.project.caches;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pet.project.config.PetCacheProperties;
+import com.pet.project.transferobjects.responses.PetCacheStatsResponse;
+import com.pet.project.transferobjects.responses.PetResponse;
+import com.pet.project.utils.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Read-through cache of {@link PetResponse} by pet id. An empty {@link Optional} is a cached 404,
+ * it expires after the shorter negative TTL so newly created pets show up quickly.
+ * Hits, misses and evictions are also published as {@code cache.*} meters named {@value #CACHE_NAME}.
+ * <p>
+ * Puts and evictions made inside a transaction take effect after it commits, so a rollback leaves the
+ * cache untouched. A reader loads a missing pet outside the cache and {@link #fill}s it afterwards; a fill
+ * whose pet was evicted or replaced since {@link #loadStamp} is dropped, so a reader racing a write cannot
+ * cache the old row after the eviction.
+ */
+@Component
+public class PetCache implements MeterBinder {
+    public static final String CACHE_NAME = "pets";
+    /** Writes bump the counter of the stripe of their pet, a power of two. */
+    private static final int STRIPES = 1024;
+
+    private final Cache<Long, Optional<PetResponse>> cache;
+    private final AtomicLongArray writes = new AtomicLongArray(STRIPES);
+
+    public PetCache(PetCacheProperties properties) {
+        this.cache = properties.isEnabled() ? build(properties) : null;
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * The cached lookup without loading, {@code null} when the id is not cached and an empty
+     * {@link Optional} when it is cached as not found.
+     */
+    public Optional<PetResponse> getIfPresent(long petId) {
+        return cache == null ? null : cache.getIfPresent(petId);
+    }
+
+    /** Taken before a pet is loaded from the database, {@link #fill} compares it after the load. */
+    public long loadStamp(long petId) {
+        return writes.get(stripe(petId));
+    }
+
+    /**
+     * Caches a loaded pet unless a write to its stripe took effect since the stamp was taken, the loaded
+     * row may then be older than that write. Checked after the put, so an eviction in between also wins.
+     */
+    public void fill(long petId, Optional<PetResponse> pet, long stamp) {
+        if (cache != null) {
+            cache.put(petId, pet);
+            if (writes.get(stripe(petId)) != stamp) {
+                cache.invalidate(petId);
+            }
+        }
+    }
+
+    public void put(long petId, PetResponse petResponse) {
+        if (cache != null) {
+            AfterCommit.run(() -> {
+                writes.incrementAndGet(stripe(petId));
+                cache.put(petId, Optional.of(petResponse));
+            });
+        }
+    }
+
+    public void evict(long petId) {
+        if (cache != null) {
+            AfterCommit.run(() -> {
+                writes.incrementAndGet(stripe(petId));
+                cache.invalidate(petId);
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        }
+    }
+
+    public PetCacheStatsResponse stats() {
+        if (cache == null) {
+            return PetCacheStatsResponse.builder().enabled(false).build();
+        }
+        CacheStats stats = cache.stats();
+        return PetCacheStatsResponse.builder()
+                .enabled(true)
+                .size(cache.estimatedSize())
+                .hits(stats.hitCount())
+                .misses(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictions(stats.evictionCount())
+                .build();
+    }
+
+    private static int stripe(long petId) {
+        return Long.hashCode(petId) & (STRIPES - 1);
+    }
+
+    private static Cache<Long, Optional<PetResponse>> build(PetCacheProperties properties) {
+        long ttlNanos = properties.getTtl().toNanos();
+        long negativeTtlNanos = properties.getNegativeTtl().toNanos();
+        return Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(new Expiry<Long, Optional<PetResponse>>() {
+                    @Override
+                    public long expireAfterCreate(Long petId, Optional<PetResponse> value, long currentTime) {
+                        return value.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long petId, Optional<PetResponse> value, long currentTime, long currentDuration) {
+                        return value.isPresent() ? ttlNanos : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long petId, Optional<PetResponse> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+}
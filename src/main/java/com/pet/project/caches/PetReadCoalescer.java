@@ -0,0 +1,56 @@
+package com.pet.project.caches;
+
+import com.pet.project.config.CoalescingProperties;
+import com.pet.project.transferobjects.responses.PetPageResponse;
+import com.pet.project.transferobjects.responses.PetResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Shares one database query between concurrent identical pet reads, see {@link SingleFlight}. The
+ * queries saved are published as {@code pet.coalescing.saved} per kind of read.
+ * <p>
+ * The full list is not coalesced: its ETag is computed before the list is read, and joining a query that
+ * started before a write would pair the old list with the new ETag, which clients then revalidate forever.
+ */
+@Component
+public class PetReadCoalescer implements MeterBinder {
+    private final boolean enabled;
+    private final SingleFlight<Long, Optional<PetResponse>> byId;
+    private final SingleFlight<Object, PetPageResponse> pages;
+
+    public PetReadCoalescer(CoalescingProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.byId = new SingleFlight<>(properties.getTimeout());
+        this.pages = new SingleFlight<>(properties.getTimeout());
+    }
+
+    public Optional<PetResponse> findById(long petId, Supplier<Optional<PetResponse>> query) {
+        return enabled ? byId.execute(petId, query) : query.get();
+    }
+
+    /**
+     * @param key identifies the query completely, pages of different queries must have unequal keys
+     */
+    public PetPageResponse page(Object key, Supplier<PetPageResponse> query) {
+        return enabled ? pages.execute(key, query) : query.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        register(registry, "byId", byId);
+        register(registry, "page", pages);
+    }
+
+    private static void register(MeterRegistry registry, String read, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder("pet.coalescing.saved", flight, SingleFlight::getSavedCalls)
+                .description("Database queries saved by joining an identical query in flight")
+                .tag("read", read)
+                .register(registry);
+    }
+}
@@ -0,0 +1,234 @@
+package com.pet.project.changes;
+
+import com.pet.project.config.PetChangesProperties;
+import com.pet.project.transferobjects.responses.PetChangeEvent;
+import com.pet.project.transferobjects.responses.PetResponse;
+import com.pet.project.utils.AfterCommit;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Committed pet changes as server-sent events. The last {@code pet.changes.buffer-size} changes are kept in
+ * a ring buffer, so a reconnecting client resumes from its Last-Event-ID; a client that fell further behind
+ * gets a {@code resync} event instead. Writers only append to the buffer, every subscriber is drained on its
+ * own virtual thread, so a slow client never holds up a write.
+ * <p>
+ * Event ids are {@code <epoch>-<position>}. The epoch is drawn when the feed starts, so an id from before a
+ * restart or from another instance is recognised as foreign and answered with {@code resync}, instead of
+ * resuming at an unrelated position of this feed.
+ */
+@Slf4j
+@Component
+public class PetChangeFeed implements MeterBinder {
+    public static final String HEARTBEAT_COMMENT = "heartbeat";
+    public static final String LOG_DEBUG_SUBSCRIBER_GONE = "Change feed subscriber disconnected.";
+    /** Cursor of a Last-Event-ID this feed did not issue, it is behind every buffer and forces a resync. */
+    private static final long FOREIGN_CURSOR = -1;
+
+    private final PetChangesProperties properties;
+    private final PetChangeEvent[] buffer;
+    private final Object lock = new Object();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final String epoch = Long.toUnsignedString(UUID.randomUUID().getMostSignificantBits(), Character.MAX_RADIX);
+    /** Id of the newest change, guarded by {@link #lock}. */
+    private long lastId;
+
+    public PetChangeFeed(PetChangesProperties properties) {
+        this.properties = properties;
+        this.buffer = new PetChangeEvent[Math.max(1, properties.getBufferSize())];
+    }
+
+    public void created(PetResponse pet) {
+        publish(PetChangeEvent.Type.CREATED, pet.getPetId(), pet);
+    }
+
+    public void updated(PetResponse pet) {
+        publish(PetChangeEvent.Type.UPDATED, pet.getPetId(), pet);
+    }
+
+    public void deleted(long petId) {
+        publish(PetChangeEvent.Type.DELETED, petId, null);
+    }
+
+    /**
+     * Opens a stream of the changes after {@code lastEventId}, or of new changes only when it is {@code null}.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, lastEventId == null ? lastId() : cursorOf(lastEventId));
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscriber.schedule();
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @Scheduled(fixedDelayString = "${pet.changes.heartbeat-interval:15s}")
+    public void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("pet.changes.subscribers", this, PetChangeFeed::getSubscriberCount)
+                .description("Open /pet/changes streams")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        executor.shutdownNow();
+    }
+
+    /** Ids are assigned at commit, so they follow the order in which changes became visible. */
+    private void publish(PetChangeEvent.Type type, Long petId, PetResponse pet) {
+        AfterCommit.run(() -> append(type, petId, pet));
+    }
+
+    private void append(PetChangeEvent.Type type, Long petId, PetResponse pet) {
+        synchronized (lock) {
+            long id = ++lastId;
+            buffer[(int) (id % buffer.length)] = PetChangeEvent.builder()
+                    .id(eventId(id))
+                    .type(type)
+                    .petId(petId)
+                    .pet(pet)
+                    .build();
+        }
+        subscribers.forEach(Subscriber::schedule);
+    }
+
+    private String eventId(long position) {
+        return epoch + "-" + position;
+    }
+
+    private long cursorOf(String lastEventId) {
+        String prefix = epoch + "-";
+        if (!lastEventId.startsWith(prefix)) {
+            return FOREIGN_CURSOR;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return FOREIGN_CURSOR;
+        }
+    }
+
+    private long lastId() {
+        synchronized (lock) {
+            return lastId;
+        }
+    }
+
+    /**
+     * The buffered changes after {@code cursor}, {@code null} when some of them were already overwritten
+     * or the cursor is ahead of this feed, as after a restart.
+     */
+    private List<PetChangeEvent> eventsAfter(long cursor) {
+        synchronized (lock) {
+            long oldest = Math.max(1, lastId - buffer.length + 1);
+            if (cursor > lastId || cursor < oldest - 1) {
+                return null;
+            }
+            List<PetChangeEvent> events = new ArrayList<>((int) (lastId - cursor));
+            for (long id = cursor + 1; id <= lastId; id++) {
+                events.add(buffer[(int) (id % buffer.length)]);
+            }
+            return events;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        /** Id of the last change sent, only touched by the drain task. */
+        private long cursor;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        private void heartbeat() {
+            heartbeatDue = true;
+            schedule();
+        }
+
+        /** At most one drain per subscriber is queued or running, so sends never interleave. */
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                List<PetChangeEvent> events = eventsAfter(cursor);
+                if (events == null) {
+                    long latest = lastId();
+                    send(PetChangeEvent.builder().id(eventId(latest)).type(PetChangeEvent.Type.RESYNC).build());
+                    cursor = latest;
+                } else {
+                    // The events follow the cursor without gaps.
+                    for (PetChangeEvent event : events) {
+                        send(event);
+                        cursor++;
+                    }
+                }
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    emitter.send(SseEmitter.event().comment(HEARTBEAT_COMMENT));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug(LOG_DEBUG_SUBSCRIBER_GONE, e);
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // A change appended while this drain ran could not schedule another one.
+            if (lastId() > cursor) {
+                schedule();
+            }
+        }
+
+        private void send(PetChangeEvent event) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(event.getId())
+                    .name(event.getType().name().toLowerCase(Locale.ROOT))
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+}
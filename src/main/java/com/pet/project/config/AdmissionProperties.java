@@ -0,0 +1,80 @@
+package com.pet.project.config;
+
+import com.pet.project.admission.CostClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Per client rate limits and per cost class concurrency limits in front of the pet endpoints.
+ */
+@Data
+@ConfigurationProperties(prefix = "pet.admission")
+public class AdmissionProperties {
+
+    /**
+     * Opt-in, while off every request goes straight to the controller. Clients are keyed by remote address, so
+     * behind a proxy set server.forward-headers-strategy or trustClientHeader, or all callers share one bucket.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Keys clients by clientHeader instead of their remote address. Only for deployments behind a gateway that
+     * sets the header and strips it from callers: a client choosing its own id gets a fresh bucket per id and
+     * can push the buckets of other clients out.
+     */
+    private boolean trustClientHeader = false;
+
+    /**
+     * Header that names the client, set by the gateway. Read only with trustClientHeader, requests without it
+     * are keyed by their remote address.
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /** Clients whose token buckets are kept, the least recently seen ones are dropped first. */
+    private long maxClients = 10000;
+
+    /** Tokens a client earns per second. */
+    private double rate = 50;
+
+    /** Tokens a client can save up, the largest burst it can send after being idle. */
+    private double burst = 100;
+
+    private Limits cheap = new Limits(1, 128, 512, Duration.ofMillis(500));
+
+    private Limits standard = new Limits(2, 32, 128, Duration.ofSeconds(1));
+
+    private Limits expensive = new Limits(20, 4, 8, Duration.ofSeconds(2));
+
+    public Limits limits(CostClass costClass) {
+        return switch (costClass) {
+            case CHEAP -> cheap;
+            case STANDARD -> standard;
+            case EXPENSIVE -> expensive;
+        };
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+
+        /** Tokens one request takes from its client's bucket. */
+        private double cost;
+
+        /** Requests of this class served at the same time, across all clients. */
+        private int maxConcurrent;
+
+        /** Requests waiting for a slot, more are rejected straight away. */
+        private int maxQueued;
+
+        /**
+         * How long a request waits for a slot. When the queue ahead cannot drain in this time it is rejected
+         * without waiting.
+         */
+        private Duration queueTimeout;
+    }
+}
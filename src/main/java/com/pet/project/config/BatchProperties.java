@@ -0,0 +1,19 @@
+package com.pet.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the bulk creation of pets.
+ */
+@Data
+@ConfigurationProperties(prefix = "pet.batch")
+public class BatchProperties {
+
+    /** Number of pets flushed per JDBC batch, keep in line with hibernate.jdbc.batch_size. */
+    private int size = 50;
+
+    /** Maximum number of pets accepted in one request. */
+    private int maxItems = 10000;
+
+}
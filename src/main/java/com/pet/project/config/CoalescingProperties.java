@@ -0,0 +1,21 @@
+package com.pet.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for sharing one database query between concurrent identical reads.
+ */
+@Data
+@ConfigurationProperties(prefix = "pet.coalescing")
+public class CoalescingProperties {
+
+    /** Turns coalescing off, every read then runs its own query. */
+    private boolean enabled = true;
+
+    /** How long a read waits for the query another read started, before it fails with 503. */
+    private Duration timeout = Duration.ofSeconds(2);
+
+}
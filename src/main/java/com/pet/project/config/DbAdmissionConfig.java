@@ -0,0 +1,39 @@
+package com.pet.project.config;
+
+import com.pet.project.datasources.AdmissionControlledDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Puts an {@link AdmissionControlledDataSource} in front of every Hikari pool, sized to the pool.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class DbAdmissionConfig {
+
+    @Bean
+    static BeanPostProcessor dbAdmissionPostProcessor(Environment environment) {
+        // Bound by hand: post processors are created before configuration properties beans.
+        DbAdmissionProperties properties = Binder.get(environment)
+                .bind(DbAdmissionProperties.PREFIX, DbAdmissionProperties.class)
+                .orElseGet(DbAdmissionProperties::new);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!properties.isEnabled() || !(bean instanceof HikariDataSource hikari)) {
+                    return bean;
+                }
+                int maxConcurrent = properties.getMaxConcurrent() > 0
+                        ? properties.getMaxConcurrent() : hikari.getMaximumPoolSize();
+                log.info("Admitting {} concurrent connections to {}.", maxConcurrent, beanName);
+                return new AdmissionControlledDataSource(hikari, maxConcurrent, properties.getMaxWaiting(),
+                        properties.getAcquireTimeout().toNanos());
+            }
+        };
+    }
+}
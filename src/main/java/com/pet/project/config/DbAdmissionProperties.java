@@ -0,0 +1,27 @@
+package com.pet.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Bounds the number of requests that may hold or wait for a database connection at the same time.
+ */
+@Data
+@ConfigurationProperties(prefix = DbAdmissionProperties.PREFIX)
+public class DbAdmissionProperties {
+    public static final String PREFIX = "pet.db-admission";
+
+    private boolean enabled = true;
+
+    /** Concurrent connections handed out, 0 means the maximum size of the Hikari pool. */
+    private int maxConcurrent = 0;
+
+    /** Callers beyond this many waiting ones are rejected straight away. */
+    private int maxWaiting = 1000;
+
+    /** How long a caller waits for a connection before it is rejected. */
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+
+}
@@ -0,0 +1,36 @@
+package com.pet.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the asynchronous write-behind endpoints under {@code /pet/ingest}.
+ */
+@Data
+@ConfigurationProperties(prefix = "pet.ingest")
+public class IngestProperties {
+
+    /** Opt-in, while off the ingest endpoints answer 404. */
+    private boolean enabled = false;
+
+    /** Maximum number of queued writes, patches to the same pet count once. Beyond it writes get 429. */
+    private int capacity = 10000;
+
+    /** Queued writes applied in one transaction, a flush starts as soon as this many are waiting. */
+    private int batchSize = 500;
+
+    /** Longest time a write waits in the queue when fewer than batchSize are queued. */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /** How long the outcome of a write can be looked up by its token. */
+    private Duration tokenRetention = Duration.ofMinutes(10);
+
+    /**
+     * Most outcomes kept for lookup, ten times the queue capacity by default. Under a sustained burst the
+     * oldest tokens are evicted before tokenRetention has passed and are reported as unknown.
+     */
+    private long maxTokens = 100000;
+
+}
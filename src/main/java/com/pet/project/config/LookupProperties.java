@@ -0,0 +1,19 @@
+package com.pet.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for looking up many pets by id in one request.
+ */
+@Data
+@ConfigurationProperties(prefix = "pet.lookup")
+public class LookupProperties {
+
+    /** Ids bound into one IN (...) query. */
+    private int chunkSize = 500;
+
+    /** Maximum number of ids accepted in one request. */
+    private int maxIds = 1000;
+
+}
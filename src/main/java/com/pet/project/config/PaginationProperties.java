@@ -0,0 +1,19 @@
+package com.pet.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Page size settings for the cursor based listing of pets.
+ */
+@Data
+@ConfigurationProperties(prefix = "pet.pagination")
+public class PaginationProperties {
+
+    /** Page size used when the client does not send a limit. */
+    private int defaultLimit = 50;
+
+    /** Hard cap on the page size, larger limits are clamped to this value. */
+    private int maxLimit = 500;
+
+}
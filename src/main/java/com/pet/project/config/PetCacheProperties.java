@@ -0,0 +1,27 @@
+package com.pet.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the in-process cache of pets looked up by id.
+ */
+@Data
+@ConfigurationProperties(prefix = "pet.cache")
+public class PetCacheProperties {
+
+    /** Turns the cache off, every lookup then goes to the database. */
+    private boolean enabled = true;
+
+    /** Maximum number of pet ids kept, least recently used ones are evicted first. */
+    private long maxSize = 10000;
+
+    /** How long a found pet is served from the cache. */
+    private Duration ttl = Duration.ofMinutes(5);
+
+    /** How long an unknown pet id keeps answering 404 without a query. */
+    private Duration negativeTtl = Duration.ofSeconds(10);
+
+}
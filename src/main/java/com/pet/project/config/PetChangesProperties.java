@@ -0,0 +1,24 @@
+package com.pet.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the {@code /pet/changes} server-sent event stream.
+ */
+@Data
+@ConfigurationProperties(prefix = "pet.changes")
+public class PetChangesProperties {
+
+    /** Number of recent changes kept for clients resuming with Last-Event-ID. */
+    private int bufferSize = 1024;
+
+    /** How long one stream stays open before the client has to reconnect. */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /** How often an idle stream gets a comment, so proxies keep it open and dead clients are noticed. */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+}
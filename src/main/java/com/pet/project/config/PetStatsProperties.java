@@ -0,0 +1,27 @@
+package com.pet.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the in-memory pet statistics served by {@code GET /pet/stats}.
+ */
+@Data
+@ConfigurationProperties(prefix = "pet.stats")
+public class PetStatsProperties {
+
+    /** Turns the counters and their recounts off. */
+    private boolean enabled = true;
+
+    /** How often the counters are rebuilt from GROUP BY queries, bounding any drift. */
+    private Duration reconcileInterval = Duration.ofMinutes(5);
+
+    /** How soon after a PUT or DELETE the counters are recounted, several writes share one recount. */
+    private Duration recountDelay = Duration.ofSeconds(30);
+
+    /** Width in years of one bucket of the age histogram. */
+    private int ageBucketWidth = 5;
+
+}
@@ -0,0 +1,35 @@
+package com.pet.project.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Routing of read-only transactions to a replica. The replica connection itself is configured under
+ * {@code pet.replica.datasource}, like {@code spring.datasource} including its {@code hikari} section.
+ * <p>
+ * Reads that fill the shared pet cache go to the primary. A row loaded from a lagging replica would otherwise
+ * be served from the cache, also to the client that just wrote it, for up to {@code pet.cache.ttl};
+ * {@link #readYourWrites} only covers reads that reach the database. With {@code pet.cache.enabled=false}
+ * nothing is cached and those reads use the replica as well.
+ */
+@Data
+@ConfigurationProperties(prefix = ReplicaProperties.PREFIX)
+public class ReplicaProperties {
+    public static final String PREFIX = "pet.replica";
+    public static final String DATASOURCE_PREFIX = PREFIX + ".datasource";
+
+    /** Off by default, everything then uses the single spring.datasource pool. */
+    private boolean enabled = false;
+
+    /** How long after its own write a client keeps reading from the primary, 0 turns it off. */
+    private Duration readYourWrites = Duration.ofSeconds(5);
+
+    /** How often the replica is probed, reads go back to it after the first successful probe. */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /** How long one probe may take before the replica counts as down. */
+    private Duration healthCheckTimeout = Duration.ofSeconds(1);
+
+}
@@ -0,0 +1,78 @@
+package com.pet.project.config;
+
+import com.pet.project.datasources.ReadReplicaRoutingDataSource;
+import com.pet.project.datasources.ReadYourWritesFilter;
+import com.pet.project.datasources.ReplicaHealth;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+
+/**
+ * Replaces the single auto-configured pool by a primary and a replica pool behind a routing
+ * {@link DataSource}, see {@link ReadReplicaRoutingDataSource}. Both pools still get admission control.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = ReplicaProperties.PREFIX, name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+    public static final String PRIMARY_POOL = "primary";
+    public static final String REPLICA_POOL = "replica";
+
+    @Bean
+    public DataSource primaryDataSource(DataSourceProperties properties, Environment environment) {
+        return hikari(properties, Binder.get(environment), "spring.datasource.hikari", PRIMARY_POOL);
+    }
+
+    @Bean
+    public DataSource replicaDataSource(Environment environment) {
+        Binder binder = Binder.get(environment);
+        DataSourceProperties properties = binder
+                .bind(ReplicaProperties.DATASOURCE_PREFIX, DataSourceProperties.class)
+                .orElseThrow(() -> new IllegalStateException(ReplicaProperties.DATASOURCE_PREFIX + " is not configured."));
+        return hikari(properties, binder, ReplicaProperties.DATASOURCE_PREFIX + ".hikari", REPLICA_POOL);
+    }
+
+    @Bean
+    public ReplicaHealth replicaHealth(@Qualifier("replicaDataSource") DataSource replica, ReplicaProperties properties) {
+        return new ReplicaHealth(replica, (int) properties.getHealthCheckTimeout().toSeconds());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica, ReplicaHealth replicaHealth) {
+        log.info("Routing read-only transactions to the {} pool.", REPLICA_POOL);
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primary, replica, replicaHealth));
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaProperties properties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(properties.getReadYourWrites(), Clock.systemUTC()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        registration.setEnabled(!properties.getReadYourWrites().isZero());
+        return registration;
+    }
+
+    private static DataSource hikari(DataSourceProperties properties, Binder binder, String hikariPrefix,
+                                     String poolName) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(hikariPrefix, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        return dataSource;
+    }
+}
@@ -1,9 +1,21 @@
 package com.pet.project.controllers;
 
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
 import com.pet.project.services.PetService;
+import com.pet.project.transferobjects.requests.PetLookupRequest;
 import com.pet.project.transferobjects.requests.PetRequest;
+import com.pet.project.transferobjects.requests.PetSearchRequest;
+import com.pet.project.transferobjects.responses.PetBatchResponse;
+import com.pet.project.transferobjects.responses.PetCacheStatsResponse;
+import com.pet.project.transferobjects.responses.PetColumnsResponse;
+import com.pet.project.transferobjects.responses.PetFieldsPageResponse;
+import com.pet.project.transferobjects.responses.PetLookupResponse;
+import com.pet.project.transferobjects.responses.PetPageResponse;
 import com.pet.project.transferobjects.responses.PetResponse;
+import com.pet.project.transferobjects.responses.PetStatsResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -11,10 +23,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -22,14 +42,28 @@ import java.util.Map;
 @Slf4j
 @RequestMapping(path = "/pet")
 public class PetController {
+    /** Lists as one array per field, see {@link PetColumnsResponse}. */
+    public static final String COLUMNAR_JSON_VALUE = "application/vnd.pet.columnar+json";
 
     private static final String BAD_REQUEST = "{ \"message\": \"Invalid request.\", \"details\": [ \"The request body contains wrong data.\" ] }";
     private static final String CREATED_PET_EXAMPLE = "{ \"name\": \"luke\", \"species\": \"dog\", \"age\": \"3\", \"petId\": \"1\"}";
+    private static final String PET_PAGE_EXAMPLE = "{ \"items\": [ { \"name\": \"luke\", \"species\": \"dog\", \"age\": \"3\", \"petId\": \"1\"} ], \"nextCursor\": \"MQ\" }";
+
+    private static final String PET_FIELDS_EXAMPLE = "{ \"petId\": \"1\", \"name\": \"luke\" }";
+    private static final String PET_FIELDS_PAGE_EXAMPLE = "{ \"items\": [ { \"petId\": \"1\", \"name\": \"luke\" } ], \"nextCursor\": \"MQ\" }";
+    private static final String COLUMNS_EXAMPLE = "{ \"petId\": [ 1, 2 ], \"name\": [ \"luke\", \"leia\" ], \"species\": [ \"cat\", \"dog\" ], \"age\": [ 3, 5 ], \"nextCursor\": \"Mg\" }";
+    private static final String LOOKUP_EXAMPLE = "{ \"pets\": [ { \"name\": \"luke\", \"species\": \"dog\", \"age\": \"3\", \"petId\": \"1\"} ], \"missing\": [ 2 ] }";
+    private static final String CHANGE_EVENT_EXAMPLE = "id:k3v9q2d1x7-42\nevent:updated\ndata:{ \"id\": \"k3v9q2d1x7-42\", \"type\": \"UPDATED\", \"petId\": 1, \"pet\": { \"petId\": \"1\", \"name\": \"luke\", \"species\": \"cat\", \"age\": \"3\" } }\n\n";
+    private static final String STATS_EXAMPLE = "{ \"total\": 3, \"bySpecies\": { \"cat\": 1, \"dog\": 2 }, \"byOwner\": { \"ben\": 3 }, \"ageHistogram\": { \"0-4\": 2, \"5-9\": 1 }, \"reconciledAt\": \"2024-01-01T00:00:00Z\" }";
+    private static final String CACHE_STATS_EXAMPLE = "{ \"enabled\": true, \"size\": 120, \"hits\": 9000, \"misses\": 1000, \"hitRate\": 0.9, \"evictions\": 12 }";
+    private static final String BATCH_CREATED_EXAMPLE = "{ \"created\": 1, \"invalid\": 1, \"items\": [ { \"index\": 0, \"status\": \"CREATED\", \"pet\": { \"name\": \"luke\", \"species\": \"dog\", \"age\": \"3\", \"petId\": \"1\"} }, { \"index\": 1, \"status\": \"INVALID\", \"errors\": [ \"name: must not be empty\" ] } ] }";
 
     private final PetService petService;
+    private final ObjectMapper objectMapper;
 
-    public PetController(PetService petService) {
+    public PetController(PetService petService, ObjectMapper objectMapper) {
         this.petService = petService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -45,52 +79,262 @@ public class PetController {
         return ResponseEntity.ok(petService.createPet(petRequestBody));
     }
 
-    @GetMapping
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Create Pets.",
+            description = "Creates the pets of the array in the request body in JDBC batches. Every item is validated on its own and reported in the response.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully processed the batch.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BATCH_CREATED_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - The request body contains wrong data.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "413", description = "Payload too large - Too many pets in one batch.", content = @Content(mediaType = "application/json")),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetBatchResponse createPets(@RequestBody List<PetRequest> petRequests) {
+        return petService.createPets(petRequests.iterator());
+    }
+
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Create Pets from a stream.",
+            description = "Creates the pets of the newline delimited JSON request body in JDBC batches, reading the body as it goes.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully processed the batch.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BATCH_CREATED_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - The request body contains wrong data.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "413", description = "Payload too large - Too many pets in one batch.", content = @Content(mediaType = "application/json")),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetBatchResponse createPetsFromStream(InputStream body) throws IOException {
+        try (MappingIterator<PetRequest> petRequests = objectMapper.readerFor(PetRequest.class).readValues(body)) {
+            return petService.createPets(petRequests);
+        } catch (RuntimeJsonMappingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The request body contains wrong data.", e);
+        }
+    }
+
+    @GetMapping(params = {"!limit", "!after", "!fields"})
     @Operation(summary = "listAllPets",
-            description = "Get the lit of all Pets.",
+            description = "Get the lit of all Pets. The response carries an ETag for the whole list, send it back in If-None-Match to get 304 when nothing changed.",
             responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the list of pets.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = CREATED_PET_EXAMPLE)})),
                     @ApiResponse(responseCode = "404", description = "Not found - The pet is not found.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "304", description = "Not modified - The ETag in If-None-Match is still current.", content = @Content),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
     )
-    public List<PetResponse> listAllPets() {
+    public List<PetResponse> listAllPets(WebRequest webRequest) {
+        // Answers If-None-Match with 304 before the list is loaded or serialized. No @ResponseStatus here,
+        // it would be applied after this method returns and turn the 304 back into an empty 200.
+        if (webRequest.checkNotModified(petService.getPetsVersion())) {
+            return null;
+        }
         return petService.listAllPets();
     }
 
+    @GetMapping(params = {"!limit", "!after", "!fields"}, produces = COLUMNAR_JSON_VALUE)
+    @Operation(summary = "listAllPetColumns",
+            description = "Same as listAllPets with one array per field, for Accept: " + COLUMNAR_JSON_VALUE + ".",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the list of pets.", content = @Content(mediaType = COLUMNAR_JSON_VALUE, examples = {@ExampleObject(value = COLUMNS_EXAMPLE)})),
+                    @ApiResponse(responseCode = "304", description = "Not modified - The ETag in If-None-Match is still current.", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetColumnsResponse listAllPetColumns(WebRequest webRequest) {
+        if (webRequest.checkNotModified(petService.getPetsVersion())) {
+            return null;
+        }
+        return petService.listAllPetColumns();
+    }
+
+    @GetMapping(params = "!fields", produces = COLUMNAR_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "listPetColumns",
+            description = "Same as listPets with one array per field, for Accept: " + COLUMNAR_JSON_VALUE + ".",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the page of pets.", content = @Content(mediaType = COLUMNAR_JSON_VALUE, examples = {@ExampleObject(value = COLUMNS_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - The cursor or the limit is invalid.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetColumnsResponse listPetColumns(@RequestParam(name = "after", required = false) String after,
+                                             @RequestParam(name = "limit", required = false) Integer limit) {
+        return petService.listPetColumns(after, limit);
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "listPets",
+            description = "Get a page of Pets ordered by id. Pass the returned nextCursor as 'after' to get the following page.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the page of pets.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = PET_PAGE_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - The cursor or the limit is invalid.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetPageResponse listPets(@RequestParam(name = "after", required = false) String after,
+                                    @RequestParam(name = "limit", required = false) Integer limit) {
+        return petService.listPets(after, limit);
+    }
+
+    @GetMapping(params = "fields")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "listPetFields",
+            description = "Get a page of Pets ordered by id with only the comma separated fields (petId, name, species, age). Only those columns are read from the database.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the page of pets.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = PET_FIELDS_PAGE_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - A field, the cursor or the limit is invalid.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetFieldsPageResponse listPetFields(@RequestParam(name = "after", required = false) String after,
+                                               @RequestParam(name = "limit", required = false) Integer limit,
+                                               @RequestParam(name = "fields") String fields) {
+        return petService.listPetFields(after, limit, fields);
+    }
+
+    @PostMapping("/lookup")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "lookupPets",
+            description = "Find many pets by id at once. The pets come back in the order of the requested ids, unknown ids are listed as missing.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully looked up the pets.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = LOOKUP_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - The request body contains wrong data.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetLookupResponse lookupPets(@RequestBody @Valid PetLookupRequest lookupRequest) {
+        return petService.lookupPets(lookupRequest.getIds());
+    }
+
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "searchPets",
+            description = "Get a page of Pets filtered by species, ownerName, namePrefix, minAge and maxAge, ordered by id. Pass the returned nextCursor as 'after' to get the following page.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the page of pets.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = PET_PAGE_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - A filter, the cursor or the limit is invalid.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetPageResponse searchPets(@Valid @ModelAttribute PetSearchRequest searchRequest) {
+        return petService.searchPets(searchRequest);
+    }
+
+    @GetMapping(path = "/search", params = "!fields", produces = COLUMNAR_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "searchPetColumns",
+            description = "Same as searchPets with one array per field, for Accept: " + COLUMNAR_JSON_VALUE + ".",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the page of pets.", content = @Content(mediaType = COLUMNAR_JSON_VALUE, examples = {@ExampleObject(value = COLUMNS_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - A filter, the cursor or the limit is invalid.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetColumnsResponse searchPetColumns(@Valid @ModelAttribute PetSearchRequest searchRequest) {
+        return petService.searchPetColumns(searchRequest);
+    }
+
+    @GetMapping(path = "/search", params = "fields")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "searchPetFields",
+            description = "Same as searchPets with only the comma separated fields (petId, name, species, age). Only those columns are read from the database.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the page of pets.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = PET_FIELDS_PAGE_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - A filter, a field, the cursor or the limit is invalid.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetFieldsPageResponse searchPetFields(@Valid @ModelAttribute PetSearchRequest searchRequest,
+                                                 @RequestParam(name = "fields") String fields) {
+        return petService.searchPetFields(searchRequest, fields);
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "exportPets",
+            description = "Stream all Pets ordered by id as newline delimited JSON, one pet per line.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully streamed the pets.", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, examples = {@ExampleObject(value = CREATED_PET_EXAMPLE)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public ResponseEntity<StreamingResponseBody> exportPets() {
+        StreamingResponseBody body = petService::exportPets;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/cache/stats")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "getCacheStats",
+            description = "Get the hit, miss and eviction counters of the pet by id cache.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the cache statistics.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = CACHE_STATS_EXAMPLE)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetCacheStatsResponse getCacheStats() {
+        return petService.getCacheStats();
+    }
+
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "streamChanges",
+            description = "Server-sent events for every committed create, update and delete. Reconnect with the Last-Event-ID header to resume; a resync event means changes were missed and tracked pets must be reloaded, also when the id is from before a restart or from another instance.",
+            responses = {@ApiResponse(responseCode = "200", description = "The change stream.", content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, examples = {@ExampleObject(value = CHANGE_EVENT_EXAMPLE)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return petService.subscribeToChanges(lastEventId);
+    }
+
+    @GetMapping("/stats")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "getStats",
+            description = "Get the number of pets per species, per owner and per age bucket. Served from counters kept up to date on every write, no table scan.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the statistics.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = STATS_EXAMPLE)})),
+                    @ApiResponse(responseCode = "404", description = "Not found - The statistics are disabled.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetStatsResponse getStats() {
+        return petService.getStats();
+    }
+
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "findPerById",
-            description = "Find a pet by id.",
+            description = "Find a pet by id. The ETag header holds the version of the pet.",
             responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the pet.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = CREATED_PET_EXAMPLE)})),
+                    @ApiResponse(responseCode = "404", description = "Not found - The pet is not found.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "304", description = "Not modified - The ETag in If-None-Match is still current.", content = @Content),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public ResponseEntity<PetResponse> findPerById(@PathVariable("id") Long id) {
+        PetResponse pet = petService.getPetById(id);
+        if (pet == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // Spring answers a matching If-None-Match with 304 and skips writing the body.
+        return withETag(ResponseEntity.ok(pet));
+    }
+
+    @GetMapping(path = "/{id}", params = "fields")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "findPetFieldsById",
+            description = "Find a pet by id with only the comma separated fields (petId, name, species, age).",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the pet.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = PET_FIELDS_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - A field is invalid.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
                     @ApiResponse(responseCode = "404", description = "Not found - The pet is not found.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
     )
-    public PetResponse findPerById(@PathVariable("id") Long id) {
-        return petService.getPetById(id);
+    public ResponseEntity<Map<String, Object>> findPetFieldsById(@PathVariable("id") Long id,
+                                                                 @RequestParam(name = "fields") String fields) {
+        Map<String, Object> pet = petService.getPetFieldsById(id, fields);
+        return pet == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(pet);
     }
 
     @PatchMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "patchPet",
-            description = "Patch the pet by id.",
+            description = "Patch the pet by id. With If-Match the pet is only patched while it still has that version.",
             responses = {@ApiResponse(responseCode = "200", description = "Successfully patched the pet.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = CREATED_PET_EXAMPLE)})),
                     @ApiResponse(responseCode = "404", description = "Not found - The pet is not found.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "412", description = "Precondition failed - The pet was changed since the version in If-Match.", content = @Content),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
     )
-    public ResponseEntity<PetResponse> patchPet(@PathVariable Long id, @RequestBody Map<String, Object> updates) {
-        return petService.patchPet(id, updates);
+    public ResponseEntity<PetResponse> patchPet(@PathVariable Long id, @RequestBody Map<String, Object> updates,
+                                                @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(petService.patchPet(id, updates, parseVersion(ifMatch)));
     }
 
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "updatePet",
-            description = "Update the pet by id.",
+            description = "Update the pet by id. With If-Match the pet is only updated while it still has that version.",
             responses = {@ApiResponse(responseCode = "200", description = "Successfully updated the pet.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = CREATED_PET_EXAMPLE)})),
                     @ApiResponse(responseCode = "404", description = "Not found - The pet is not found.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "412", description = "Precondition failed - The pet was changed since the version in If-Match.", content = @Content),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
     )
-    public ResponseEntity<PetResponse> updatePet(@PathVariable @NonNull Long id, @RequestBody PetRequest petRequest) {
-        return petService.updatePetById(id, petRequest);
+    public ResponseEntity<PetResponse> updatePet(@PathVariable @NonNull Long id, @RequestBody @Valid PetRequest petRequest,
+                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(petService.updatePetById(id, petRequest, parseVersion(ifMatch)));
     }
 
     @DeleteMapping("/{id}")
@@ -101,9 +345,38 @@ public class PetController {
                     @ApiResponse(responseCode = "404", description = "Not found - The pet is not found.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
                     @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
     )
-    public void deletePet(@PathVariable Long id) {
-        petService.deletePetById(id);
+    public ResponseEntity<Void> deletePet(@PathVariable Long id) {
+        return petService.deletePetById(id);
     }
 
+    private static ResponseEntity<PetResponse> withETag(ResponseEntity<PetResponse> response) {
+        PetResponse pet = response.getBody();
+        if (!response.getStatusCode().is2xxSuccessful() || pet == null || pet.getVersion() == null) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .eTag(Long.toString(pet.getVersion()))
+                .body(pet);
+    }
+
+    /**
+     * The version in an If-Match header, {@code null} when there is none or it is {@code *}.
+     * An ETag that is not a version of ours can never match, so it maps to -1.
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
 
 }
@@ -0,0 +1,67 @@
+package com.pet.project.controllers;
+
+import com.pet.project.ingest.IngestQueueFullException;
+import com.pet.project.transferobjects.responses.ErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.List;
+
+@Slf4j
+@RestControllerAdvice
+public class PetControllerAdvice {
+    public static final String SERVICE_UNAVAILABLE = "Service unavailable.";
+    public static final String NO_DATABASE_CONNECTION = "No database connection is available, retry later.";
+    public static final String RETRY_AFTER_SECONDS = "1";
+    public static final String TOO_MANY_REQUESTS = "Too many requests.";
+    public static final String QUERY_TIMED_OUT = "The database did not answer in time, retry later.";
+
+    /**
+     * No connection could be admitted in time: answer fast with 503 so clients back off,
+     * instead of a generic 500.
+     */
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErrorResponse> handleNoConnection(RuntimeException e) {
+        log.warn(NO_DATABASE_CONNECTION, e);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(ErrorResponse.builder()
+                        .message(SERVICE_UNAVAILABLE)
+                        .details(List.of(NO_DATABASE_CONNECTION))
+                        .build());
+    }
+
+    /**
+     * A read waited too long for an identical query in flight: the database is slow, so back off like above.
+     */
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleQueryTimeout(QueryTimeoutException e) {
+        log.warn(QUERY_TIMED_OUT, e);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(ErrorResponse.builder()
+                        .message(SERVICE_UNAVAILABLE)
+                        .details(List.of(QUERY_TIMED_OUT))
+                        .build());
+    }
+
+    /**
+     * The ingest queue is full: 429 tells the client to slow down, the queue drains within a flush interval.
+     */
+    @ExceptionHandler(IngestQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleQueueFull(IngestQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(ErrorResponse.builder()
+                        .message(TOO_MANY_REQUESTS)
+                        .details(List.of(e.getMessage()))
+                        .build());
+    }
+}
@@ -0,0 +1,72 @@
+package com.pet.project.controllers;
+
+import com.pet.project.ingest.PetIngestQueue;
+import com.pet.project.transferobjects.requests.PetRequest;
+import com.pet.project.transferobjects.responses.PetIngestResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@Slf4j
+@RequestMapping(path = "/pet/ingest")
+public class PetIngestController {
+    private static final String BAD_REQUEST = "{ \"message\": \"Invalid request.\", \"details\": [ \"The request body contains wrong data.\" ] }";
+    private static final String QUEUED_EXAMPLE = "{ \"token\": \"0f8fad5b-d9cb-469f-a165-70867728950e\", \"status\": \"QUEUED\" }";
+    private static final String APPLIED_EXAMPLE = "{ \"token\": \"0f8fad5b-d9cb-469f-a165-70867728950e\", \"status\": \"APPLIED\", \"petId\": 1 }";
+
+    private final PetIngestQueue petIngestQueue;
+
+    public PetIngestController(PetIngestQueue petIngestQueue) {
+        this.petIngestQueue = petIngestQueue;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "ingestPet",
+            description = "Queue a pet to be created in the next batch. Answers at once with a token to look up the outcome.",
+            responses = {@ApiResponse(responseCode = "202", description = "The pet is queued.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = QUEUED_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - The request body contains wrong data.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "404", description = "Not found - Asynchronous ingestion is disabled.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "429", description = "Too many requests - The queue is full, retry after the Retry-After header.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetIngestResponse ingestPet(@RequestBody @Valid PetRequest petRequest) {
+        return petIngestQueue.enqueueCreate(petRequest);
+    }
+
+    @PatchMapping("/{id}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "ingestPatch",
+            description = "Queue a patch of the pet by id. Patches to a pet that is still queued are merged, later values win.",
+            responses = {@ApiResponse(responseCode = "202", description = "The patch is queued.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = QUEUED_EXAMPLE)})),
+                    @ApiResponse(responseCode = "400", description = "Bad Request - The request body contains wrong data.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "404", description = "Not found - Asynchronous ingestion is disabled.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "429", description = "Too many requests - The queue is full, retry after the Retry-After header.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public PetIngestResponse ingestPatch(@PathVariable Long id, @RequestBody Map<String, Object> updates) {
+        return petIngestQueue.enqueuePatch(id, updates);
+    }
+
+    @GetMapping("/{token}")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "getIngestStatus",
+            description = "Get the outcome of a queued write by its token.",
+            responses = {@ApiResponse(responseCode = "200", description = "Successfully retrieved the outcome.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = APPLIED_EXAMPLE)})),
+                    @ApiResponse(responseCode = "404", description = "Not found - The token is unknown or expired.", content = @Content(mediaType = "application/json", examples = {@ExampleObject(value = BAD_REQUEST)})),
+                    @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(mediaType = "application/json"))}
+    )
+    public ResponseEntity<PetIngestResponse> getIngestStatus(@PathVariable String token) {
+        PetIngestResponse status = petIngestQueue.getStatus(token);
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+}
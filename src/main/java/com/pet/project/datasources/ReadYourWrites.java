@@ -0,0 +1,43 @@
+package com.pet.project.datasources;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks the current request as coming from a client that wrote recently, its reads then stay on the
+ * primary so they see that write even while the replica lags.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    public static void pin() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinned() {
+        return PINNED.get() != null;
+    }
+
+    /**
+     * Runs a read on the primary whatever the client, for results that outlive the request such as cache
+     * fills. The pin of the request, if any, is left as it was.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        boolean pinned = isPinned();
+        pin();
+        try {
+            return read.get();
+        } finally {
+            if (!pinned) {
+                unpin();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.pet.project.datasources;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Whether reads may go to the replica. A failed connection marks it down at once, the periodic probe
+ * brings it back.
+ */
+@Slf4j
+public class ReplicaHealth implements MeterBinder {
+    public static final String LOG_WARN_REPLICA_DOWN = "Replica is down, reads go to the primary.";
+    public static final String LOG_INFO_REPLICA_UP = "Replica is up, read-only transactions use it again.";
+
+    private final DataSource replica;
+    private final int timeoutSeconds;
+    private volatile boolean healthy = true;
+
+    public ReplicaHealth(DataSource replica, int timeoutSeconds) {
+        this.replica = replica;
+        this.timeoutSeconds = Math.max(1, timeoutSeconds);
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public void markDown(Exception cause) {
+        if (healthy) {
+            healthy = false;
+            log.warn(LOG_WARN_REPLICA_DOWN, cause);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pet.replica.health-check-interval:5s}")
+    public void check() {
+        try (Connection connection = replica.getConnection()) {
+            if (!connection.isValid(timeoutSeconds)) {
+                markDown(null);
+            } else if (!healthy) {
+                healthy = true;
+                log.info(LOG_INFO_REPLICA_UP);
+            }
+        } catch (SQLException e) {
+            markDown(e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("pet.replica.healthy", this, health -> health.isHealthy() ? 1 : 0)
+                .description("1 while read-only transactions are routed to the replica")
+                .register(registry);
+    }
+}
@@ -0,0 +1,11 @@
+package com.pet.project.ingest;
+
+/**
+ * The ingest queue is at capacity, the write was not accepted and should be retried later.
+ */
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,312 @@
+package com.pet.project.ingest;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pet.project.config.IngestProperties;
+import com.pet.project.mappers.PetMapper;
+import com.pet.project.services.PetService;
+import com.pet.project.transferobjects.requests.PetRequest;
+import com.pet.project.transferobjects.responses.PetBatchItemResult;
+import com.pet.project.transferobjects.responses.PetBatchResponse;
+import com.pet.project.transferobjects.responses.PetIngestResponse;
+import com.pet.project.transferobjects.responses.PetResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind queue for bursts of creates and patches. A write is validated, queued and answered with a
+ * token right away; a background thread applies queued writes in one transaction per batch, as soon as
+ * {@code pet.ingest.batch-size} are waiting or after {@code pet.ingest.flush-interval}. Patches to a pet
+ * that is still queued are merged into one. When the queue is full new writes are refused, the caller
+ * answers 429. Outcomes are kept for {@code pet.ingest.token-retention} but at most
+ * {@code pet.ingest.max-tokens} of them, so old tokens may be evicted early.
+ */
+@Slf4j
+@Component
+public class PetIngestQueue {
+    public static final String INGEST_DISABLED = "Asynchronous ingestion is disabled.";
+    public static final String QUEUE_FULL = "The ingest queue is full, retry later.";
+    public static final String PET_NOT_FOUND = "The pet is not found.";
+    public static final String LOG_WARN_FLUSH_FAILED = "Could not apply queued pet writes.";
+
+    private final IngestProperties properties;
+    private final PetService petService;
+    private final PetMapper petMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<String, PetIngestResponse> outcomes;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter coalesced;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final ArrayDeque<PendingCreate> creates = new ArrayDeque<>();
+    private final LinkedHashMap<Long, PendingPatch> patches = new LinkedHashMap<>();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public PetIngestQueue(IngestProperties properties, PetService petService, PetMapper petMapper,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.petService = petService;
+        this.petMapper = petMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outcomes = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getTokenRetention())
+                .maximumSize(properties.getMaxTokens())
+                .build();
+        this.flushTimer = Timer.builder("pet.ingest.flush")
+                .description("Time to apply one batch of queued writes")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("pet.ingest.batch.size")
+                .description("Queued writes applied per flush")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("pet.ingest.coalesced")
+                .description("Patches merged into a patch that was already queued")
+                .register(meterRegistry);
+        Gauge.builder("pet.ingest.queue.depth", this, PetIngestQueue::getDepth)
+                .description("Writes waiting to be applied")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.isEnabled()) {
+            running = true;
+            flusher = Thread.ofPlatform().name("pet-ingest").daemon().start(this::run);
+        }
+    }
+
+    /** Stops the background thread and applies whatever is still queued. */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join();
+        }
+        while (flush() > 0) {
+            // Drains the remaining batches.
+        }
+    }
+
+    public PetIngestResponse enqueueCreate(PetRequest petRequest) {
+        checkEnabled();
+        PetIngestResponse queued = queued(null);
+        lock.lock();
+        try {
+            checkCapacity();
+            outcomes.put(queued.getToken(), queued);
+            creates.add(new PendingCreate(queued.getToken(), petRequest));
+            signalIfBatchReady();
+        } finally {
+            lock.unlock();
+        }
+        return queued;
+    }
+
+    public PetIngestResponse enqueuePatch(long petId, Map<String, Object> updates) {
+        checkEnabled();
+        // Invalid values are rejected now, not when the batch is applied.
+        Map<String, Object> attributes = petMapper.toPatchAttributes(updates);
+        PetIngestResponse queued = queued(petId);
+        lock.lock();
+        try {
+            PendingPatch pending = patches.get(petId);
+            if (pending == null) {
+                checkCapacity();
+                pending = new PendingPatch(new LinkedHashMap<>(), new ArrayList<>());
+                patches.put(petId, pending);
+                signalIfBatchReady();
+            } else {
+                coalesced.increment();
+            }
+            outcomes.put(queued.getToken(), queued);
+            pending.attributes().putAll(attributes);
+            pending.tokens().add(queued.getToken());
+        } finally {
+            lock.unlock();
+        }
+        return queued;
+    }
+
+    /** The outcome of a queued write, {@code null} when the token is unknown, expired or evicted. */
+    public PetIngestResponse getStatus(String token) {
+        checkEnabled();
+        return outcomes.getIfPresent(token);
+    }
+
+    public int getDepth() {
+        lock.lock();
+        try {
+            return creates.size() + patches.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applies up to one batch of queued writes in a single transaction.
+     *
+     * @return the number of queued writes taken from the queue
+     */
+    public int flush() {
+        List<PendingCreate> createBatch = new ArrayList<>();
+        Map<Long, PendingPatch> patchBatch = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            int batchSize = properties.getBatchSize();
+            while (!creates.isEmpty() && createBatch.size() < batchSize) {
+                createBatch.add(creates.poll());
+            }
+            Iterator<Map.Entry<Long, PendingPatch>> iterator = patches.entrySet().iterator();
+            while (iterator.hasNext() && createBatch.size() + patchBatch.size() < batchSize) {
+                Map.Entry<Long, PendingPatch> entry = iterator.next();
+                patchBatch.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+        int taken = createBatch.size() + patchBatch.size();
+        if (taken > 0) {
+            batchSizes.record(taken);
+            flushTimer.record(() -> apply(createBatch, patchBatch));
+        }
+        return taken;
+    }
+
+    private void run() {
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        while (running) {
+            lock.lock();
+            try {
+                if (getDepth() < properties.getBatchSize()) {
+                    batchReady.awaitNanos(intervalNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.warn(LOG_WARN_FLUSH_FAILED, e);
+            }
+        }
+    }
+
+    /**
+     * Applies one batch through the service, so cache, statistics and change feed see these writes like
+     * any other. Outcomes are published only after the transaction has committed.
+     */
+    private void apply(List<PendingCreate> createBatch, Map<Long, PendingPatch> patchBatch) {
+        Map<String, PetIngestResponse> results = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!createBatch.isEmpty()) {
+                    PetBatchResponse created = petService.createPets(
+                            createBatch.stream().map(PendingCreate::request).iterator());
+                    for (int i = 0; i < createBatch.size(); i++) {
+                        results.put(createBatch.get(i).token(), createOutcome(created.getItems().get(i)));
+                    }
+                }
+                patchBatch.forEach((petId, pending) -> {
+                    ResponseEntity<PetResponse> patched = petService.patchPet(petId, pending.attributes(), null);
+                    PetIngestResponse outcome = patched.getStatusCode().is2xxSuccessful()
+                            ? PetIngestResponse.builder().status(PetIngestResponse.Status.APPLIED).petId(petId).build()
+                            : failed(petId, PET_NOT_FOUND);
+                    pending.tokens().forEach(token -> results.put(token, outcome));
+                });
+            });
+        } catch (RuntimeException e) {
+            log.warn(LOG_WARN_FLUSH_FAILED, e);
+            results.clear();
+            createBatch.forEach(pending -> results.put(pending.token(), failed(null, e.getMessage())));
+            patchBatch.forEach((petId, pending) ->
+                    pending.tokens().forEach(token -> results.put(token, failed(petId, e.getMessage()))));
+        }
+        results.forEach((token, outcome) -> outcomes.put(token, outcome.toBuilder().token(token).build()));
+    }
+
+    private static PetIngestResponse createOutcome(PetBatchItemResult item) {
+        if (item.getStatus() == PetBatchItemResult.Status.CREATED) {
+            return PetIngestResponse.builder()
+                    .status(PetIngestResponse.Status.APPLIED)
+                    .petId(item.getPet().getPetId())
+                    .build();
+        }
+        return PetIngestResponse.builder()
+                .status(PetIngestResponse.Status.FAILED)
+                .errors(item.getErrors())
+                .build();
+    }
+
+    private static PetIngestResponse failed(Long petId, String error) {
+        return PetIngestResponse.builder()
+                .status(PetIngestResponse.Status.FAILED)
+                .petId(petId)
+                .errors(error == null ? null : List.of(error))
+                .build();
+    }
+
+    private static PetIngestResponse queued(Long petId) {
+        return PetIngestResponse.builder()
+                .token(UUID.randomUUID().toString())
+                .status(PetIngestResponse.Status.QUEUED)
+                .petId(petId)
+                .build();
+    }
+
+    private void checkEnabled() {
+        if (!properties.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, INGEST_DISABLED);
+        }
+    }
+
+    /** Must hold {@link #lock}. */
+    private void checkCapacity() {
+        if (creates.size() + patches.size() >= properties.getCapacity()) {
+            throw new IngestQueueFullException(QUEUE_FULL);
+        }
+    }
+
+    /** Must hold {@link #lock}. */
+    private void signalIfBatchReady() {
+        if (creates.size() + patches.size() >= properties.getBatchSize()) {
+            batchReady.signal();
+        }
+    }
+
+    private record PendingCreate(String token, PetRequest request) {
+    }
+
+    private record PendingPatch(Map<String, Object> attributes, List<String> tokens) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.pet.project.mappers;
+
+import com.pet.project.entities.PetEntity;
+import com.pet.project.repos.PetField;
+import com.pet.project.repos.PetRow;
+import com.pet.project.transferobjects.requests.PetRequest;
+import com.pet.project.transferobjects.responses.PetColumnsResponse;
+import com.pet.project.transferobjects.responses.PetResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plain field copies between {@link PetEntity} and the transfer objects, no reflection and no
+ * intermediate JSON tree, so mapping costs a handful of getter and setter calls per pet.
+ */
+@Component
+public class PetMapper {
+    public static final String FIELD_NAME = "name";
+    public static final String FIELD_SPECIES = "species";
+    public static final String FIELD_OWNER_NAME = "ownerName";
+    public static final String FIELD_AGE = "age";
+
+    private static final int MAX_TEXT_LENGTH = 64;
+
+    public PetEntity toEntity(PetRequest petRequest) {
+        return PetEntity.builder()
+                .name(petRequest.getName())
+                .species(petRequest.getSpecies())
+                .ownerName(petRequest.getOwnerName())
+                .age(petRequest.getAge()).build();
+    }
+
+    public PetResponse toResponse(PetEntity petEntity) {
+        return PetResponse.builder()
+                .petId(petEntity.getPetId())
+                .version(petEntity.getVersion())
+                .age(petEntity.getAge())
+                .name(petEntity.getName())
+                .species(petEntity.getSpecies()).build();
+    }
+
+    public PetResponse toResponse(PetRow petRow) {
+        return PetResponse.builder()
+                .petId(petRow.petId())
+                .version(petRow.version())
+                .age(petRow.age())
+                .name(petRow.name())
+                .species(petRow.species()).build();
+    }
+
+    public PetRow toRow(PetEntity petEntity) {
+        return new PetRow(petEntity.getPetId(), petEntity.getName(), petEntity.getSpecies(),
+                petEntity.getOwnerName(), petEntity.getAge(), petEntity.getVersion());
+    }
+
+    public PetColumnsResponse toColumns(List<PetResponse> pets, String nextCursor) {
+        List<Long> petIds = new ArrayList<>(pets.size());
+        List<String> names = new ArrayList<>(pets.size());
+        List<String> species = new ArrayList<>(pets.size());
+        List<Integer> ages = new ArrayList<>(pets.size());
+        for (PetResponse pet : pets) {
+            petIds.add(pet.getPetId());
+            names.add(pet.getName());
+            species.add(pet.getSpecies());
+            ages.add(pet.getAge());
+        }
+        return PetColumnsResponse.builder()
+                .petId(petIds)
+                .name(names)
+                .species(species)
+                .age(ages)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /** Only the requested fields of a response, in the order of {@link PetField}. */
+    public Map<String, Object> toFields(PetResponse petResponse, Set<PetField> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (PetField field : fields) {
+            switch (field) {
+                case PET_ID -> values.put(field.getAttribute(), petResponse.getPetId());
+                case NAME -> values.put(field.getAttribute(), petResponse.getName());
+                case SPECIES -> values.put(field.getAttribute(), petResponse.getSpecies());
+                case AGE -> values.put(field.getAttribute(), petResponse.getAge());
+            }
+        }
+        return values;
+    }
+
+    /** The response of a PUT, built from the request so the row does not have to be read back. */
+    public PetResponse toResponse(long petId, PetRequest petRequest) {
+        return PetResponse.builder()
+                .petId(petId)
+                .age(petRequest.getAge())
+                .name(petRequest.getName())
+                .species(petRequest.getSpecies()).build();
+    }
+
+    /** The row after a PATCH of the given attributes, whose UPDATE also bumps the version. */
+    public PetRow toPatchedRow(PetRow petRow, Map<String, Object> attributes) {
+        return new PetRow(petRow.petId(),
+                (String) attributes.getOrDefault(FIELD_NAME, petRow.name()),
+                (String) attributes.getOrDefault(FIELD_SPECIES, petRow.species()),
+                (String) attributes.getOrDefault(FIELD_OWNER_NAME, petRow.ownerName()),
+                (Integer) attributes.getOrDefault(FIELD_AGE, petRow.age()),
+                petRow.version() + 1);
+    }
+
+    /**
+     * Checks the fields of a PATCH body and converts them to entity attribute values. Unknown fields
+     * are ignored and the id can not be patched, wrongly typed values are rejected with 400.
+     */
+    public Map<String, Object> toPatchAttributes(Map<String, Object> updates) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> update : updates.entrySet()) {
+            Object value = update.getValue();
+            switch (update.getKey()) {
+                case FIELD_NAME -> attributes.put(FIELD_NAME, requiredText(FIELD_NAME, value));
+                case FIELD_SPECIES -> attributes.put(FIELD_SPECIES, requiredText(FIELD_SPECIES, value));
+                case FIELD_OWNER_NAME -> attributes.put(FIELD_OWNER_NAME, optionalText(FIELD_OWNER_NAME, value));
+                case FIELD_AGE -> attributes.put(FIELD_AGE, age(value));
+                default -> {
+                    // Same leniency as the JSON binding of the other endpoints.
+                }
+            }
+        }
+        return attributes;
+    }
+
+    private static String requiredText(String field, Object value) {
+        String text = optionalText(field, value);
+        if (text == null || text.isEmpty()) {
+            throw invalid(field, "must not be empty");
+        }
+        return text;
+    }
+
+    private static String optionalText(String field, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof String text)) {
+            throw invalid(field, "must be a string");
+        }
+        if (text.length() > MAX_TEXT_LENGTH) {
+            throw invalid(field, "size must be between 0 and " + MAX_TEXT_LENGTH);
+        }
+        return text;
+    }
+
+    private static Integer age(Object value) {
+        if (value == null) {
+            return null;
+        }
+        long age;
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            age = ((Number) value).longValue();
+        } else if (value instanceof String text) {
+            try {
+                age = Long.parseLong(text.trim());
+            } catch (NumberFormatException e) {
+                throw invalid(FIELD_AGE, "must be a whole number");
+            }
+        } else {
+            throw invalid(FIELD_AGE, "must be a whole number");
+        }
+        if (age < 0) {
+            throw invalid(FIELD_AGE, "must not be negative");
+        }
+        if (age > Integer.MAX_VALUE) {
+            throw invalid(FIELD_AGE, "must be at most " + Integer.MAX_VALUE);
+        }
+        return (int) age;
+    }
+
+    private static ResponseStatusException invalid(String field, String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, field + ": " + message);
+    }
+}
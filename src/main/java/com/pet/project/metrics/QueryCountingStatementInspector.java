@@ -0,0 +1,33 @@
+package com.pet.project.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, so {@link QueryCountFilter} can
+ * record how many queries one request issued. Hibernate creates this class itself, the count is static.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        long[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    /** Starts counting on the current thread, statements outside a request are not counted. */
+    static void start() {
+        COUNT.set(new long[1]);
+    }
+
+    /** Stops counting on the current thread and returns the number of statements since {@link #start()}. */
+    static long stop() {
+        long[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+}
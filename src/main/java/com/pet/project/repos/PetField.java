@@ -0,0 +1,54 @@
+package com.pet.project.repos;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The pet fields a client can ask for with {@code ?fields=}, named as in the JSON responses.
+ */
+public enum PetField {
+    PET_ID("petId"),
+    NAME("name"),
+    SPECIES("species"),
+    AGE("age");
+
+    private final String attribute;
+
+    PetField(String attribute) {
+        this.attribute = attribute;
+    }
+
+    /** Entity attribute and JSON property name. */
+    public String getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * Parses a comma separated list of field names.
+     *
+     * @throws IllegalArgumentException for an unknown field name or an empty list
+     */
+    public static Set<PetField> parse(String fields) {
+        Set<PetField> parsed = EnumSet.noneOf(PetField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            parsed.add(fromAttribute(trimmed));
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("No fields requested.");
+        }
+        return parsed;
+    }
+
+    private static PetField fromAttribute(String attribute) {
+        for (PetField field : values()) {
+            if (field.attribute.equals(attribute)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unknown field: " + attribute);
+    }
+}
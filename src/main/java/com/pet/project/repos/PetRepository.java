@@ -1,14 +1,133 @@
 package com.pet.project.repos;
 
 import com.pet.project.entities.PetEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import lombok.NonNull;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Read-only transactions by default, so reads outside a service transaction can go to the replica.
+ * Writing methods declare their own {@code @Transactional}.
+ */
+@Transactional(readOnly = true)
+public interface PetRepository extends JpaRepository<PetEntity, Long>, PetRepositoryCustom {
+    /** Rows the driver pulls per round trip while streaming an export. */
+    String EXPORT_FETCH_SIZE = "1000";
 
-public interface PetRepository extends JpaRepository<PetEntity, Long>  {
     List<PetEntity> findAll();
     Optional<PetEntity> findById(@NonNull Long id);
     void deleteById(@NonNull Long id);
+
+    /**
+     * Keyset page: seeks on the primary key so every page costs the same regardless of depth.
+     */
+    List<PetEntity> findByPetIdGreaterThanOrderByPetIdAsc(@NonNull Long petId, @NonNull Limit limit);
+
+    /**
+     * Server side cursor over the whole table, must be consumed inside a transaction and closed.
+     * Entities are loaded read-only so Hibernate keeps no dirty-checking snapshots for them.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")})
+    @Query("select p from PetEntity p order by p.petId")
+    Stream<PetEntity> streamAll();
+
+    /**
+     * Rows for the given ids in one query, as projections so no managed entities are created.
+     */
+    @Query("select new com.pet.project.repos.PetRow(p.petId, p.name, p.species, p.ownerName, p.age, p.version) "
+            + "from PetEntity p where p.petId in :ids")
+    List<PetRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The row as it is before a write, locked until the calling transaction ends so no concurrent write
+     * to the same pet can change it in between. Only valid inside the writing transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new com.pet.project.repos.PetRow(p.petId, p.name, p.species, p.ownerName, p.age, p.version) "
+            + "from PetEntity p where p.petId = :petId")
+    Optional<PetRow> findRowByIdForUpdate(@Param("petId") Long petId);
+
+    /**
+     * Replaces all columns of one pet in a single statement, without loading it first, and bumps its
+     * version. With an expected version the row is only updated while it still has that version.
+     *
+     * @return the number of rows matched, 0 when the pet does not exist or has another version
+     */
+    @Transactional
+    @Modifying
+    @Query("update PetEntity p set p.name = :name, p.species = :species, p.ownerName = :ownerName, p.age = :age, "
+            + "p.version = p.version + 1 "
+            + "where p.petId = :petId and (:expectedVersion is null or p.version = :expectedVersion)")
+    int updateById(@Param("petId") Long petId, @Param("name") String name, @Param("species") String species,
+                   @Param("ownerName") String ownerName, @Param("age") Integer age,
+                   @Param("expectedVersion") Long expectedVersion);
+
+    /**
+     * The version of one pet; inside the transaction that updated it, the version that update wrote.
+     */
+    @Query("select p.version from PetEntity p where p.petId = :petId")
+    Optional<Long> findVersionById(@Param("petId") Long petId);
+
+    /**
+     * Changes whenever a pet is created, updated or deleted, so it can serve as the ETag of the full list.
+     */
+    @Query("select count(p) as total, coalesce(max(p.petId), 0) as maxId, coalesce(sum(p.version), 0) as versionSum "
+            + "from PetEntity p")
+    CollectionStamp collectionStamp();
+
+    interface CollectionStamp {
+        long getTotal();
+        long getMaxId();
+        long getVersionSum();
+    }
+
+    /**
+     * Pets per species, per owner and per age, used to rebuild the statistics counters.
+     */
+    @Query("select p.species as name, count(p) as total from PetEntity p group by p.species")
+    List<GroupCount> countBySpecies();
+
+    @Query("select p.ownerName as name, count(p) as total from PetEntity p group by p.ownerName")
+    List<GroupCount> countByOwnerName();
+
+    @Query("select p.age as age, count(p) as total from PetEntity p group by p.age")
+    List<AgeCount> countByAge();
+
+    interface GroupCount {
+        String getName();
+        long getTotal();
+    }
+
+    interface AgeCount {
+        Integer getAge();
+        long getTotal();
+    }
+
+    /**
+     * Deletes one pet in a single statement, unlike {@link #deleteById} which loads it first.
+     *
+     * @return the number of rows deleted, 0 when the pet does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from PetEntity p where p.petId = :petId")
+    int deletePet(@Param("petId") Long petId);
 }
@@ -0,0 +1,35 @@
+package com.pet.project.repos;
+
+import com.pet.project.transferobjects.requests.PetSearchRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface PetRepositoryCustom {
+
+    /**
+     * Updates only the given entity attributes of one pet in a single UPDATE statement and bumps its
+     * version. With an expected version the row is only updated while it still has that version.
+     *
+     * @return the number of rows matched, 0 when the pet does not exist or has another version
+     */
+    int patchById(Long petId, Map<String, Object> attributes, Long expectedVersion);
+
+    /**
+     * One keyset page of the pets matching every filter that is set, ordered by id.
+     */
+    List<PetRow> search(PetSearchRequest filters, long afterId, int limit);
+
+    /**
+     * Same page as {@link #search}, selecting only the columns of the requested fields. Every row
+     * also holds {@code petId}, which the caller needs for the next cursor.
+     */
+    List<Map<String, Object>> searchFields(Set<PetField> fields, PetSearchRequest filters, long afterId, int limit);
+
+    /**
+     * The requested fields of one pet, selecting only their columns.
+     */
+    Optional<Map<String, Object>> findFieldsById(Set<PetField> fields, Long petId);
+}
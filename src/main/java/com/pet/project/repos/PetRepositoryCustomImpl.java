@@ -0,0 +1,154 @@
+package com.pet.project.repos;
+
+import com.pet.project.entities.PetEntity;
+import com.pet.project.transferobjects.requests.PetSearchRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class PetRepositoryCustomImpl implements PetRepositoryCustom {
+    private static final String ID_ATTRIBUTE = "petId";
+    private static final String VERSION_ATTRIBUTE = "version";
+    private static final String NAME_ATTRIBUTE = "name";
+    private static final String SPECIES_ATTRIBUTE = "species";
+    private static final String OWNER_NAME_ATTRIBUTE = "ownerName";
+    private static final String AGE_ATTRIBUTE = "age";
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final EntityManager entityManager;
+
+    public PetRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int patchById(Long petId, Map<String, Object> attributes, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<PetEntity> update = cb.createCriteriaUpdate(PetEntity.class);
+        Root<PetEntity> pet = update.from(PetEntity.class);
+        attributes.forEach((attribute, value) -> {
+            Path<Object> path = pet.get(attribute);
+            update.set(path, value);
+        });
+        Path<Long> version = pet.get(VERSION_ATTRIBUTE);
+        update.set(version, cb.sum(version, 1L));
+        Predicate matches = cb.equal(pet.get(ID_ATTRIBUTE), petId);
+        if (expectedVersion != null) {
+            matches = cb.and(matches, cb.equal(version, expectedVersion));
+        }
+        update.where(matches);
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PetRow> search(PetSearchRequest filters, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PetRow> query = cb.createQuery(PetRow.class);
+        Root<PetEntity> pet = query.from(PetEntity.class);
+        query.select(cb.construct(PetRow.class, pet.get(ID_ATTRIBUTE), pet.get(NAME_ATTRIBUTE),
+                pet.get(SPECIES_ATTRIBUTE), pet.get(OWNER_NAME_ATTRIBUTE), pet.get(AGE_ATTRIBUTE),
+                pet.get(VERSION_ATTRIBUTE)));
+        query.where(searchPredicates(cb, pet, filters, afterId));
+        query.orderBy(cb.asc(pet.get(ID_ATTRIBUTE)));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> searchFields(Set<PetField> fields, PetSearchRequest filters, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<PetEntity> pet = query.from(PetEntity.class);
+        query.multiselect(fieldSelections(pet, fields));
+        query.where(searchPredicates(cb, pet, filters, afterId));
+        query.orderBy(cb.asc(pet.get(ID_ATTRIBUTE)));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> toFieldMap(tuple, fields))
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> findFieldsById(Set<PetField> fields, Long petId) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<PetEntity> pet = query.from(PetEntity.class);
+        query.multiselect(fieldSelections(pet, fields));
+        query.where(cb.equal(pet.get(ID_ATTRIBUTE), petId));
+        return entityManager.createQuery(query)
+                .getResultStream()
+                .findFirst()
+                .map(tuple -> toFieldMap(tuple, fields));
+    }
+
+    /** The id column plus the column of every requested field, aliased by field name. */
+    private static List<Selection<?>> fieldSelections(Root<PetEntity> pet, Set<PetField> fields) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size() + 1);
+        selections.add(pet.get(ID_ATTRIBUTE).alias(ID_ATTRIBUTE));
+        for (PetField field : fields) {
+            if (!ID_ATTRIBUTE.equals(field.getAttribute())) {
+                selections.add(pet.get(field.getAttribute()).alias(field.getAttribute()));
+            }
+        }
+        return selections;
+    }
+
+    private static Map<String, Object> toFieldMap(Tuple tuple, Set<PetField> fields) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put(ID_ATTRIBUTE, tuple.get(ID_ATTRIBUTE));
+        for (PetField field : fields) {
+            row.put(field.getAttribute(), tuple.get(field.getAttribute()));
+        }
+        return row;
+    }
+
+    private static Predicate[] searchPredicates(CriteriaBuilder cb, Root<PetEntity> pet, PetSearchRequest filters,
+                                                long afterId) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(pet.get(ID_ATTRIBUTE), afterId));
+        if (filters.getSpecies() != null) {
+            predicates.add(cb.equal(pet.get(SPECIES_ATTRIBUTE), filters.getSpecies()));
+        }
+        if (filters.getOwnerName() != null) {
+            predicates.add(cb.equal(pet.get(OWNER_NAME_ATTRIBUTE), filters.getOwnerName()));
+        }
+        if (filters.getNamePrefix() != null && !filters.getNamePrefix().isEmpty()) {
+            // A prefix LIKE without a leading wildcard can use the name indexes as a range scan.
+            predicates.add(cb.like(pet.get(NAME_ATTRIBUTE), escapeLike(filters.getNamePrefix()) + "%", LIKE_ESCAPE));
+        }
+        if (filters.getMinAge() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(pet.get(AGE_ATTRIBUTE), filters.getMinAge()));
+        }
+        if (filters.getMaxAge() != null) {
+            predicates.add(cb.lessThanOrEqualTo(pet.get(AGE_ATTRIBUTE), filters.getMaxAge()));
+        }
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
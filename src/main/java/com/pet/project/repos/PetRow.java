@@ -0,0 +1,8 @@
+package com.pet.project.repos;
+
+/**
+ * Read-only projection of a pet row, selected column by column so Hibernate does not create a
+ * managed entity or a dirty-checking snapshot for it.
+ */
+public record PetRow(Long petId, String name, String species, String ownerName, Integer age, Long version) {
+}
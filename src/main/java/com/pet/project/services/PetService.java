@@ -1,17 +1,44 @@
 package com.pet.project.services;
 
 import com.pet.project.transferobjects.requests.PetRequest;
+import com.pet.project.transferobjects.requests.PetSearchRequest;
+import com.pet.project.transferobjects.responses.PetBatchResponse;
+import com.pet.project.transferobjects.responses.PetCacheStatsResponse;
+import com.pet.project.transferobjects.responses.PetColumnsResponse;
+import com.pet.project.transferobjects.responses.PetFieldsPageResponse;
+import com.pet.project.transferobjects.responses.PetLookupResponse;
+import com.pet.project.transferobjects.responses.PetPageResponse;
 import com.pet.project.transferobjects.responses.PetResponse;
+import com.pet.project.transferobjects.responses.PetStatsResponse;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 public interface PetService {
     PetResponse createPet(PetRequest petRequest);
+    PetBatchResponse createPets(Iterator<PetRequest> petRequests);
     PetResponse getPetById(long petId);
-    ResponseEntity<PetResponse> updatePetById(long petId, PetRequest petRequest);
-    ResponseEntity<PetResponse> patchPet(long petId, Map<String, Object> updates);
+    Map<String, Object> getPetFieldsById(long petId, String fields);
+    PetLookupResponse lookupPets(List<Long> petIds);
+    ResponseEntity<PetResponse> updatePetById(long petId, PetRequest petRequest, Long expectedVersion);
+    ResponseEntity<PetResponse> patchPet(long petId, Map<String, Object> updates, Long expectedVersion);
     List<PetResponse> listAllPets();
-    void deletePetById(long petId);
+    String getPetsVersion();
+    PetPageResponse listPets(String after, Integer limit);
+    PetPageResponse searchPets(PetSearchRequest searchRequest);
+    PetColumnsResponse listAllPetColumns();
+    PetColumnsResponse listPetColumns(String after, Integer limit);
+    PetColumnsResponse searchPetColumns(PetSearchRequest searchRequest);
+    PetFieldsPageResponse listPetFields(String after, Integer limit, String fields);
+    PetFieldsPageResponse searchPetFields(PetSearchRequest searchRequest, String fields);
+    ResponseEntity<Void> deletePetById(long petId);
+    void exportPets(OutputStream outputStream) throws IOException;
+    PetCacheStatsResponse getCacheStats();
+    PetStatsResponse getStats();
+    SseEmitter subscribeToChanges(String lastEventId);
 }
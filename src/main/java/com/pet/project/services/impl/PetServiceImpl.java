@@ -1,104 +1,550 @@
 package com.pet.project.services.impl;
 
-import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pet.project.caches.PetCache;
+import com.pet.project.caches.PetReadCoalescer;
+import com.pet.project.changes.PetChangeFeed;
+import com.pet.project.config.BatchProperties;
+import com.pet.project.config.LookupProperties;
+import com.pet.project.config.PaginationProperties;
+import com.pet.project.datasources.ReadYourWrites;
 import com.pet.project.entities.PetEntity;
+import com.pet.project.mappers.PetMapper;
+import com.pet.project.repos.PetField;
 import com.pet.project.repos.PetRepository;
+import com.pet.project.repos.PetRow;
 import com.pet.project.services.PetService;
+import com.pet.project.stats.PetStats;
 import com.pet.project.transferobjects.requests.PetRequest;
+import com.pet.project.transferobjects.requests.PetSearchRequest;
+import com.pet.project.transferobjects.responses.PetBatchItemResult;
+import com.pet.project.transferobjects.responses.PetBatchResponse;
+import com.pet.project.transferobjects.responses.PetCacheStatsResponse;
+import com.pet.project.transferobjects.responses.PetColumnsResponse;
+import com.pet.project.transferobjects.responses.PetFieldsPageResponse;
+import com.pet.project.transferobjects.responses.PetLookupResponse;
+import com.pet.project.transferobjects.responses.PetPageResponse;
 import com.pet.project.transferobjects.responses.PetResponse;
+import com.pet.project.transferobjects.responses.PetStatsResponse;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
+@Timed(value = PetServiceImpl.METRIC_NAME, description = "Pet service calls by method")
 public class PetServiceImpl implements PetService {
+    public static final String METRIC_NAME = "pet.service";
     public static final String LOG_INFO_LISTING_ALL_PETS = "Retrieving all pets.";
     public static final String LOG_INFO_UPDATING_PET = "Updating pet.";
     public static final String LOG_INFO_GETTING_PET = "Getting pet.";
     public static final String LOG_INFO_CREATING_PET = "Creating pet.";
     public static final String LOG_INFO_DELETING_PET = "Deleting pet.";
+    public static final String LOG_INFO_LISTING_PETS_PAGE = "Retrieving page of pets.";
+    public static final String LOG_INFO_SEARCHING_PETS = "Searching pets.";
+    public static final String LOG_INFO_LOOKING_UP_PETS = "Looking up pets by id.";
+    public static final String TOO_MANY_IDS = "Too many ids in one lookup.";
+    public static final String INVALID_FIELDS = "Invalid fields.";
+    public static final String LOG_INFO_EXPORTING_PETS = "Exporting all pets.";
+    public static final String LOG_INFO_CREATING_PETS_BATCH = "Creating batch of pets.";
+    public static final String EMPTY_BATCH_ITEM = "The item is empty.";
+    public static final String TOO_MANY_BATCH_ITEMS = "Too many pets in one batch.";
+    public static final String INVALID_CURSOR = "Invalid cursor.";
+    public static final String INVALID_LIMIT = "The limit must be positive.";
+    public static final String STATS_DISABLED = "Pet statistics are disabled.";
 
 
     private final ObjectMapper objectMapper;
     private final PetRepository petRepository;
+    private final PaginationProperties paginationProperties;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final BatchProperties batchProperties;
+    private final PetCache petCache;
+    private final PetMapper petMapper;
+    private final LookupProperties lookupProperties;
+    private final PetStats petStats;
+    private final PetChangeFeed petChangeFeed;
+    private final PetReadCoalescer readCoalescer;
 
-    public PetServiceImpl(ObjectMapper objectMapper, PetRepository petRepository) {
+    public PetServiceImpl(ObjectMapper objectMapper, PetRepository petRepository, PaginationProperties paginationProperties,
+                          EntityManager entityManager, Validator validator, BatchProperties batchProperties,
+                          PetCache petCache, PetMapper petMapper, LookupProperties lookupProperties,
+                          PetStats petStats, PetChangeFeed petChangeFeed, PetReadCoalescer readCoalescer) {
         this.objectMapper = objectMapper;
         this.petRepository = petRepository;
+        this.paginationProperties = paginationProperties;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.batchProperties = batchProperties;
+        this.petCache = petCache;
+        this.petMapper = petMapper;
+        this.lookupProperties = lookupProperties;
+        this.petStats = petStats;
+        this.petChangeFeed = petChangeFeed;
+        this.readCoalescer = readCoalescer;
     }
 
     @Override
     public PetResponse createPet(PetRequest petRequest) {
         log.info(LOG_INFO_CREATING_PET);
-        PetEntity petEntity = petRepository.save(objectMapper.convertValue(petRequest, PetEntity.class));
-        return objectMapper.convertValue(petEntity, PetResponse.class);
+        PetEntity petEntity = petRepository.save(petMapper.toEntity(petRequest));
+        PetResponse response = petMapper.toResponse(petEntity);
+        // Replaces a cached 404 for this id, if a client asked for it before it existed.
+        petCache.put(petEntity.getPetId(), response);
+        petStats.created(petMapper.toRow(petEntity));
+        petChangeFeed.created(response);
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public PetBatchResponse createPets(Iterator<PetRequest> petRequests) {
+        log.info(LOG_INFO_CREATING_PETS_BATCH);
+        int batchSize = batchProperties.getSize();
+        List<PetBatchItemResult> results = new ArrayList<>();
+        List<PetEntity> pendingEntities = new ArrayList<>(batchSize);
+        List<PetBatchItemResult> pendingResults = new ArrayList<>(batchSize);
+        int invalid = 0;
+        int index = 0;
+        while (petRequests.hasNext()) {
+            if (index >= batchProperties.getMaxItems()) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, TOO_MANY_BATCH_ITEMS);
+            }
+            PetRequest petRequest = petRequests.next();
+            List<String> errors = validate(petRequest);
+            PetBatchItemResult result = PetBatchItemResult.builder().index(index++).build();
+            results.add(result);
+            if (!errors.isEmpty()) {
+                result.setStatus(PetBatchItemResult.Status.INVALID);
+                result.setErrors(errors);
+                invalid++;
+                continue;
+            }
+            result.setStatus(PetBatchItemResult.Status.CREATED);
+            pendingEntities.add(petMapper.toEntity(petRequest));
+            pendingResults.add(result);
+            if (pendingEntities.size() == batchSize) {
+                flushBatch(pendingEntities, pendingResults);
+            }
+        }
+        flushBatch(pendingEntities, pendingResults);
+        return PetBatchResponse.builder()
+                .created(results.size() - invalid)
+                .invalid(invalid)
+                .items(results)
+                .build();
     }
 
     @Override
     public PetResponse getPetById(long petId) {
         log.info(LOG_INFO_GETTING_PET);
-        return petRepository.findById(petId)
-                .map(existing -> {
-                    return ResponseEntity.ok(objectMapper.convertValue(existing, PetResponse.class));
+        Optional<PetResponse> cached = petCache.getIfPresent(petId);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        // Misses are coalesced outside the cache, a loading Caffeine entry would block the other readers
+        // without a timeout. Coalesced reads have no service transaction, so callers waiting on a query in
+        // flight hold no connection.
+        return readCoalescer.findById(petId, () -> {
+                    long stamp = petCache.loadStamp(petId);
+                    Optional<PetResponse> pet = cacheFillRead(
+                            () -> petRepository.findById(petId).map(petMapper::toResponse));
+                    petCache.fill(petId, pet, stamp);
+                    return pet;
                 })
-                .orElse(ResponseEntity.notFound().build()).getBody();
+                .orElse(null);
     }
 
     @Override
-    public ResponseEntity<PetResponse> updatePetById(long petId, PetRequest petRequest) {
-        log.info(LOG_INFO_UPDATING_PET);
-        return petRepository.findById(petId)
-                .map(existing -> {
-                    PetEntity toBeUpdated = objectMapper.convertValue(petRequest, PetEntity.class);
-                    PetEntity entityUpdated = petRepository.save(toBeUpdated);
-                    PetResponse response = objectMapper.convertValue(entityUpdated, PetResponse.class);
-                    return ResponseEntity.ok(response);
-                })
-                .orElse(ResponseEntity.notFound().build());
+    public Map<String, Object> getPetFieldsById(long petId, String fields) {
+        log.info(LOG_INFO_GETTING_PET);
+        Set<PetField> requested = parseFields(fields);
+        // No service transaction: a cache hit takes neither a connection nor a DB-admission permit.
+        Optional<PetResponse> cached = petCache.getIfPresent(petId);
+        if (cached != null) {
+            return cached.map(pet -> petMapper.toFields(pet, requested)).orElse(null);
+        }
+        return petRepository.findFieldsById(requested, petId)
+                .map(row -> withoutUnrequestedId(row, requested))
+                .orElse(null);
     }
 
     @Override
-    public ResponseEntity<PetResponse> patchPet(long petId, Map<String, Object> updates) {
-        log.info(LOG_INFO_UPDATING_PET);
-        return petRepository.findById(petId)
-                .map(existing -> {
-                    try {
-                        objectMapper.updateValue(existing, updates);
-                    } catch (JsonMappingException e) {
-                        throw new RuntimeException("Failed to apply patch updates", e);
-                    }
-
-                    PetEntity updated = petRepository.save(existing);
+    public PetLookupResponse lookupPets(List<Long> petIds) {
+        log.info(LOG_INFO_LOOKING_UP_PETS);
+        Set<Long> requested = new LinkedHashSet<>(petIds);
+        if (requested.size() > lookupProperties.getMaxIds()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, TOO_MANY_IDS);
+        }
+        Map<Long, Optional<PetResponse>> resolved = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long petId : requested) {
+            Optional<PetResponse> cached = petCache.getIfPresent(petId);
+            if (cached == null) {
+                misses.add(petId);
+            } else {
+                resolved.put(petId, cached);
+            }
+        }
+        // Only cache misses reach the database, each chunk in its own repository transaction; a fixed chunk
+        // size keeps the IN list bounded. They are cache fills, and are filled with stamps taken before the
+        // query so a write racing the lookup is not undone.
+        int chunkSize = lookupProperties.getChunkSize();
+        for (int from = 0; from < misses.size(); from += chunkSize) {
+            List<Long> chunk = misses.subList(from, Math.min(from + chunkSize, misses.size()));
+            long[] stamps = new long[chunk.size()];
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i] = petCache.loadStamp(chunk.get(i));
+            }
+            for (PetRow row : cacheFillRead(() -> petRepository.findRowsByIdIn(chunk))) {
+                resolved.put(row.petId(), Optional.of(petMapper.toResponse(row)));
+            }
+            for (int i = 0; i < stamps.length; i++) {
+                Long petId = chunk.get(i);
+                petCache.fill(petId, resolved.computeIfAbsent(petId, id -> Optional.empty()), stamps[i]);
+            }
+        }
+        List<PetResponse> pets = new ArrayList<>(requested.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long petId : requested) {
+            Optional<PetResponse> pet = resolved.get(petId);
+            if (pet.isPresent()) {
+                pets.add(pet.get());
+            } else {
+                missing.add(petId);
+            }
+        }
+        return PetLookupResponse.builder()
+                .pets(pets)
+                .missing(missing)
+                .build();
+    }
 
-                    PetResponse response = objectMapper.convertValue(updated, PetResponse.class);
+    @Override
+    @Transactional
+    public ResponseEntity<PetResponse> updatePetById(long petId, PetRequest petRequest, Long expectedVersion) {
+        log.info(LOG_INFO_UPDATING_PET);
+        // One UPDATE, the matched row count tells whether the pet exists.
+        int updated = petRepository.updateById(petId, petRequest.getName(), petRequest.getSpecies(),
+                petRequest.getOwnerName(), petRequest.getAge(), expectedVersion);
+        if (updated == 0) {
+            return notUpdated(petId, expectedVersion);
+        }
+        PetResponse response = petMapper.toResponse(petId, petRequest);
+        // Without If-Match the new version is read back, the UPDATE holds the row lock so it is ours.
+        response.setVersion(expectedVersion != null ? expectedVersion + 1
+                : petRepository.findVersionById(petId).orElseThrow());
+        petCache.put(petId, response);
+        petStats.changed();
+        petChangeFeed.updated(response);
+        return ResponseEntity.ok(response);
+    }
 
-                    return ResponseEntity.ok(response);
-                })
-                .orElse(ResponseEntity.notFound().build());
+    @Override
+    @Transactional
+    public ResponseEntity<PetResponse> patchPet(long petId, Map<String, Object> updates, Long expectedVersion) {
+        log.info(LOG_INFO_UPDATING_PET);
+        Map<String, Object> attributes = petMapper.toPatchAttributes(updates);
+        // The locked row is the base of the response and the before image of the statistics, so a PATCH is one
+        // SELECT ... FOR UPDATE and one UPDATE, and no other write to the pet can come in between.
+        Optional<PetRow> locked = petRepository.findRowByIdForUpdate(petId);
+        if (locked.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        PetRow before = locked.get();
+        if (expectedVersion != null && !expectedVersion.equals(before.version())) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        if (attributes.isEmpty()) {
+            PetResponse response = petMapper.toResponse(before);
+            petCache.put(petId, response);
+            return ResponseEntity.ok(response);
+        }
+        if (petRepository.patchById(petId, attributes, expectedVersion) == 0) {
+            // The row is locked and exists, only the expected version can have missed.
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        PetRow after = petMapper.toPatchedRow(before, attributes);
+        PetResponse response = petMapper.toResponse(after);
+        petCache.put(petId, response);
+        if (petStats.isEnabled()) {
+            petStats.updated(before, after);
+        }
+        petChangeFeed.updated(response);
+        return ResponseEntity.ok(response);
     }
 
     @Override
     public List<PetResponse> listAllPets() {
-        List<PetEntity> petEntitiesList = petRepository.findAll();
         log.info(LOG_INFO_LISTING_ALL_PETS);
-        return petEntitiesList.stream()
-                .map(p -> PetResponse.builder()
-                        .petId(p.getPetId())
-                        .age(p.getAge())
-                        .name(p.getName())
-                        .species(p.getSpecies()).build())
+        return petRepository.findAll().stream()
+                .map(petMapper::toResponse)
                 .collect(Collectors.toUnmodifiableList());
     }
 
     @Override
-    public void deletePetById(long petId) {
+    @Transactional(readOnly = true)
+    public String getPetsVersion() {
+        PetRepository.CollectionStamp stamp = petRepository.collectionStamp();
+        return stamp.getTotal() + "-" + stamp.getMaxId() + "-" + stamp.getVersionSum();
+    }
+
+    @Override
+    public PetPageResponse listPets(String after, Integer limit) {
+        log.info(LOG_INFO_LISTING_PETS_PAGE);
+        int pageSize = resolvePageSize(limit);
+        long afterId = decodeAfter(after);
+        return readCoalescer.page(new PageKey(null, afterId, pageSize), () -> {
+            // One extra row tells us whether there is a next page without a count query.
+            List<PetEntity> rows = petRepository.findByPetIdGreaterThanOrderByPetIdAsc(afterId, Limit.of(pageSize + 1));
+            return toPage(rows.stream().map(petMapper::toResponse).collect(Collectors.toList()), pageSize);
+        });
+    }
+
+    @Override
+    public PetPageResponse searchPets(PetSearchRequest searchRequest) {
+        log.info(LOG_INFO_SEARCHING_PETS);
+        int pageSize = resolvePageSize(searchRequest.getLimit());
+        long afterId = decodeAfter(searchRequest.getAfter());
+        return readCoalescer.page(new PageKey(searchRequest, afterId, pageSize), () -> {
+            List<PetRow> rows = petRepository.search(searchRequest, afterId, pageSize + 1);
+            return toPage(rows.stream().map(petMapper::toResponse).collect(Collectors.toList()), pageSize);
+        });
+    }
+
+    @Override
+    public PetColumnsResponse listAllPetColumns() {
+        return petMapper.toColumns(listAllPets(), null);
+    }
+
+    @Override
+    public PetColumnsResponse listPetColumns(String after, Integer limit) {
+        PetPageResponse page = listPets(after, limit);
+        return petMapper.toColumns(page.getItems(), page.getNextCursor());
+    }
+
+    @Override
+    public PetColumnsResponse searchPetColumns(PetSearchRequest searchRequest) {
+        PetPageResponse page = searchPets(searchRequest);
+        return petMapper.toColumns(page.getItems(), page.getNextCursor());
+    }
+
+    @Override
+    @Transactional
+    public ResponseEntity<Void> deletePetById(long petId) {
         log.info(LOG_INFO_DELETING_PET);
-        petRepository.deleteById(petId);
+        int deleted = petRepository.deletePet(petId);
+        petCache.evict(petId);
+        if (deleted > 0) {
+            petStats.changed();
+            petChangeFeed.deleted(petId);
+        }
+        return deleted == 0 ? ResponseEntity.notFound().build() : ResponseEntity.ok().build();
+    }
+
+    @Override
+    public PetCacheStatsResponse getCacheStats() {
+        return petCache.stats();
+    }
+
+    @Override
+    public PetStatsResponse getStats() {
+        if (!petStats.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, STATS_DISABLED);
+        }
+        return petStats.snapshot();
+    }
+
+    @Override
+    public SseEmitter subscribeToChanges(String lastEventId) {
+        return petChangeFeed.subscribe(lastEventId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PetFieldsPageResponse listPetFields(String after, Integer limit, String fields) {
+        return searchPetFields(PetSearchRequest.builder().after(after).limit(limit).build(), fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PetFieldsPageResponse searchPetFields(PetSearchRequest searchRequest, String fields) {
+        log.info(LOG_INFO_SEARCHING_PETS);
+        Set<PetField> requested = parseFields(fields);
+        int pageSize = resolvePageSize(searchRequest.getLimit());
+        long afterId = decodeAfter(searchRequest.getAfter());
+        List<Map<String, Object>> rows = petRepository.searchFields(requested, searchRequest, afterId, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<Map<String, Object>> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext
+                ? encodeCursor((Long) items.get(items.size() - 1).get(PetField.PET_ID.getAttribute())) : null;
+        return PetFieldsPageResponse.builder()
+                .items(items.stream().map(row -> withoutUnrequestedId(row, requested)).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPets(OutputStream outputStream) throws IOException {
+        log.info(LOG_INFO_EXPORTING_PETS);
+        // Flushing after every row would turn each pet into its own network write.
+        ObjectWriter writer = objectMapper.writerFor(PetResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<PetEntity> pets = petRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<PetEntity> iterator = pets.iterator();
+            while (iterator.hasNext()) {
+                PetEntity pet = iterator.next();
+                writer.writeValue(generator, petMapper.toResponse(pet));
+                generator.writeRaw('\n');
+                // Keeps the persistence context empty so heap use does not grow with the table.
+                entityManager.detach(pet);
+            }
+        }
+    }
+
+    /**
+     * A conditional write that matched no row: 412 when the pet exists with another version, else 404.
+     */
+    private <T> ResponseEntity<T> notUpdated(long petId, Long expectedVersion) {
+        if (expectedVersion != null && petRepository.existsById(petId)) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * The cache is shared by all clients, so reads that fill it go to the primary: a row from a lagging replica
+     * would be served to the client that just wrote it, while it stays cached. Without the cache they are
+     * routed like any other read.
+     */
+    private <T> T cacheFillRead(Supplier<T> read) {
+        return petCache.isEnabled() ? ReadYourWrites.onPrimary(read) : read.get();
+    }
+
+    private List<String> validate(PetRequest petRequest) {
+        if (petRequest == null) {
+            return List.of(EMPTY_BATCH_ITEM);
+        }
+        Set<ConstraintViolation<PetRequest>> violations = validator.validate(petRequest);
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Inserts the pending pets as one JDBC batch and empties the persistence context,
+     * so a large request does not keep every inserted entity managed until commit.
+     */
+    private void flushBatch(List<PetEntity> pendingEntities, List<PetBatchItemResult> pendingResults) {
+        if (pendingEntities.isEmpty()) {
+            return;
+        }
+        petRepository.saveAll(pendingEntities);
+        petRepository.flush();
+        for (int i = 0; i < pendingEntities.size(); i++) {
+            PetEntity created = pendingEntities.get(i);
+            PetResponse response = petMapper.toResponse(created);
+            pendingResults.get(i).setPet(response);
+            petCache.put(created.getPetId(), response);
+            petStats.created(petMapper.toRow(created));
+            petChangeFeed.created(response);
+        }
+        entityManager.clear();
+        pendingEntities.clear();
+        pendingResults.clear();
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return paginationProperties.getDefaultLimit();
+        }
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_LIMIT);
+        }
+        return Math.min(limit, paginationProperties.getMaxLimit());
+    }
+
+    /**
+     * Cuts the one extra row that was fetched beyond the page size and turns it into the next cursor.
+     */
+    private static PetPageResponse toPage(List<PetResponse> rows, int pageSize) {
+        boolean hasNext = rows.size() > pageSize;
+        List<PetResponse> items = List.copyOf(hasNext ? rows.subList(0, pageSize) : rows);
+        String nextCursor = hasNext ? encodeCursor(items.get(items.size() - 1).getPetId()) : null;
+        return PetPageResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static Set<PetField> parseFields(String fields) {
+        try {
+            return PetField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_FIELDS + " " + e.getMessage(), e);
+        }
+    }
+
+    /** Projection rows always carry the id for the cursor, it is only returned when asked for. */
+    private static Map<String, Object> withoutUnrequestedId(Map<String, Object> row, Set<PetField> requested) {
+        if (!requested.contains(PetField.PET_ID)) {
+            row.remove(PetField.PET_ID.getAttribute());
+        }
+        return row;
+    }
+
+    private static long decodeAfter(String after) {
+        return after == null || after.isBlank() ? 0L : decodeCursor(after);
+    }
+
+    private static String encodeCursor(long petId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(petId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, INVALID_CURSOR, e);
+        }
+    }
+
+    /** Identifies a page query for coalescing, {@code filters} is null for the unfiltered listing. */
+    private record PageKey(PetSearchRequest filters, long afterId, int pageSize) {
     }
 }
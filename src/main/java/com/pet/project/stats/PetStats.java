@@ -0,0 +1,229 @@
+package com.pet.project.stats;
+
+import com.pet.project.config.PetStatsProperties;
+import com.pet.project.repos.PetRepository;
+import com.pet.project.repos.PetRow;
+import com.pet.project.transferobjects.responses.PetStatsResponse;
+import com.pet.project.utils.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pets per species, per owner and per age bucket, kept in memory so a read costs the number of distinct keys
+ * instead of a table scan. Creates and patches adjust the counters once their transaction commits, they know
+ * the row before and after the write. PUT and DELETE stay single statements and only mark the counters stale,
+ * which recounts them within {@code pet.stats.recount-delay}. Concurrent writes to the same pet can still make
+ * the counters drift, so they are also rebuilt from GROUP BY queries every {@code pet.stats.reconcile-interval},
+ * the first time right after startup.
+ * <p>
+ * A rebuild reads all three counts in one repeatable-read transaction on the primary, so they come from the
+ * same snapshot. Changes committed while it runs are recorded and replayed onto the rebuilt counters before
+ * they replace the old ones, under the lock the writers apply their changes with.
+ */
+@Slf4j
+@Component
+public class PetStats {
+    public static final String UNKNOWN = "unknown";
+    public static final String LOG_INFO_RECONCILING = "Reconciling pet statistics.";
+    public static final String LOG_WARN_RECONCILE_FAILED = "Could not reconcile pet statistics.";
+
+    private final PetStatsProperties properties;
+    private final PetRepository petRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Object lock = new Object();
+    private volatile Counters counters;
+    private volatile Instant reconciledAt;
+    private final AtomicBoolean stale = new AtomicBoolean();
+    /** Changes applied while a rebuild runs, {@code null} otherwise; guarded by {@link #lock}. */
+    private List<Change> changesDuringRebuild;
+
+    public PetStats(PetStatsProperties properties, PetRepository petRepository,
+                    PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.petRepository = petRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Read-write so the rebuild goes to the primary, repeatable read so its three counts share one snapshot.
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.counters = new Counters(properties.getAgeBucketWidth());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void created(PetRow after) {
+        apply(null, after);
+    }
+
+    public void updated(PetRow before, PetRow after) {
+        apply(before, after);
+    }
+
+    /** A write without a before image, the counters are recounted after it commits. */
+    public void changed() {
+        if (isEnabled()) {
+            AfterCommit.run(() -> stale.set(true));
+        }
+    }
+
+    public PetStatsResponse snapshot() {
+        Counters current = counters;
+        return PetStatsResponse.builder()
+                .total(current.total.sum())
+                .bySpecies(sorted(current.bySpecies))
+                .byOwner(sorted(current.byOwner))
+                .ageHistogram(current.ageHistogram())
+                .reconciledAt(reconciledAt)
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${pet.stats.reconcile-interval:5m}")
+    public synchronized void reconcile() {
+        if (!isEnabled()) {
+            return;
+        }
+        log.info(LOG_INFO_RECONCILING);
+        // Recording starts before the snapshot, a change committed right at its start may then count twice
+        // until the next rebuild; one committed after it is never lost.
+        synchronized (lock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        try {
+            Counters rebuilt = transactionTemplate.execute(status -> count());
+            synchronized (lock) {
+                changesDuringRebuild.forEach(change -> rebuilt.apply(change.before(), change.after()));
+                counters = rebuilt;
+                reconciledAt = Instant.now();
+            }
+        } catch (DataAccessException | TransactionException e) {
+            log.warn(LOG_WARN_RECONCILE_FAILED, e);
+        } finally {
+            synchronized (lock) {
+                changesDuringRebuild = null;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pet.stats.recount-delay:30s}")
+    public void recountIfChanged() {
+        // Cleared before the recount, a write committing during it marks the counters stale again.
+        if (stale.getAndSet(false)) {
+            reconcile();
+        }
+    }
+
+    private Counters count() {
+        Counters rebuilt = new Counters(properties.getAgeBucketWidth());
+        for (PetRepository.GroupCount row : petRepository.countBySpecies()) {
+            rebuilt.bySpecies.computeIfAbsent(key(row.getName()), k -> new LongAdder()).add(row.getTotal());
+            rebuilt.total.add(row.getTotal());
+        }
+        for (PetRepository.GroupCount row : petRepository.countByOwnerName()) {
+            rebuilt.byOwner.computeIfAbsent(key(row.getName()), k -> new LongAdder()).add(row.getTotal());
+        }
+        for (PetRepository.AgeCount row : petRepository.countByAge()) {
+            rebuilt.ageCounter(row.getAge()).add(row.getTotal());
+        }
+        return rebuilt;
+    }
+
+    private void apply(PetRow before, PetRow after) {
+        if (!isEnabled()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            synchronized (lock) {
+                counters.apply(before, after);
+                if (changesDuringRebuild != null) {
+                    changesDuringRebuild.add(new Change(before, after));
+                }
+            }
+        });
+    }
+
+    private static String key(String value) {
+        return value == null ? UNKNOWN : value;
+    }
+
+    private static Map<String, Long> sorted(Map<String, LongAdder> counts) {
+        Map<String, Long> result = new TreeMap<>();
+        counts.forEach((key, count) -> {
+            long value = count.sum();
+            if (value > 0) {
+                result.put(key, value);
+            }
+        });
+        return result;
+    }
+
+    private record Change(PetRow before, PetRow after) {
+    }
+
+    private static final class Counters {
+        private final int ageBucketWidth;
+        private final LongAdder total = new LongAdder();
+        private final Map<String, LongAdder> bySpecies = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> byOwner = new ConcurrentHashMap<>();
+        /** Keyed by the first age of the bucket. */
+        private final Map<Integer, LongAdder> byAgeBucket = new ConcurrentHashMap<>();
+        private final LongAdder unknownAge = new LongAdder();
+
+        private Counters(int ageBucketWidth) {
+            this.ageBucketWidth = Math.max(1, ageBucketWidth);
+        }
+
+        private void apply(PetRow before, PetRow after) {
+            if (before != null) {
+                add(before, -1);
+            }
+            if (after != null) {
+                add(after, 1);
+            }
+        }
+
+        private void add(PetRow row, int delta) {
+            total.add(delta);
+            bySpecies.computeIfAbsent(key(row.species()), k -> new LongAdder()).add(delta);
+            byOwner.computeIfAbsent(key(row.ownerName()), k -> new LongAdder()).add(delta);
+            ageCounter(row.age()).add(delta);
+        }
+
+        private LongAdder ageCounter(Integer age) {
+            if (age == null) {
+                return unknownAge;
+            }
+            return byAgeBucket.computeIfAbsent(Math.floorDiv(age, ageBucketWidth) * ageBucketWidth,
+                    k -> new LongAdder());
+        }
+
+        private Map<String, Long> ageHistogram() {
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            new TreeMap<>(byAgeBucket).forEach((start, count) -> {
+                long value = count.sum();
+                if (value > 0) {
+                    histogram.put(start + "-" + (start + ageBucketWidth - 1), value);
+                }
+            });
+            if (unknownAge.sum() > 0) {
+                histogram.put(UNKNOWN, unknownAge.sum());
+            }
+            return histogram;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.pet.project.transferobjects;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,10 +17,12 @@ public class PetDetails {
 
     @NotNull
     @NotEmpty
+    @Size(max = 64)
     private String name;
 
     @NotNull
     @NotEmpty
+    @Size(max = 64)
     private String species;
 
     @Min(value = 0L, message = "The age must be positive.")
@@ -0,0 +1,21 @@
+package com.pet.project.transferobjects.requests;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PetLookupRequest {
+
+    @NotNull
+    @NotEmpty
+    private List<@NotNull Long> ids;
+}
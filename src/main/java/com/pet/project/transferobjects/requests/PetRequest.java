@@ -1,6 +1,7 @@
 package com.pet.project.transferobjects.requests;
 
 import com.pet.project.transferobjects.PetDetails;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -16,5 +17,6 @@ import lombok.extern.slf4j.Slf4j;
 @AllArgsConstructor
 @NoArgsConstructor
 public class PetRequest extends PetDetails {
+    @Size(max = 64)
     private String ownerName;
 }
@@ -0,0 +1,27 @@
+package com.pet.project.transferobjects.requests;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PetSearchRequest {
+    private String species;
+    private String ownerName;
+    private String namePrefix;
+
+    @Min(value = 0L, message = "The age must be positive.")
+    private Integer minAge;
+
+    @Min(value = 0L, message = "The age must be positive.")
+    private Integer maxAge;
+
+    /** Cursor returned as nextCursor by the previous page. */
+    private String after;
+    private Integer limit;
+}
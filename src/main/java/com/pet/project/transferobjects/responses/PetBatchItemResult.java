@@ -0,0 +1,28 @@
+package com.pet.project.transferobjects.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PetBatchItemResult {
+
+    public enum Status {
+        CREATED,
+        INVALID
+    }
+
+    /** Position of the item in the request, starting at 0. */
+    private int index;
+    private Status status;
+    private PetResponse pet;
+    private List<String> errors;
+}
@@ -0,0 +1,18 @@
+package com.pet.project.transferobjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PetBatchResponse {
+    private int created;
+    private int invalid;
+    private List<PetBatchItemResult> items;
+}
@@ -0,0 +1,29 @@
+package com.pet.project.transferobjects.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PetChangeEvent {
+    /** The SSE id, the epoch of the feed and the position of the change in it. */
+    private String id;
+    private Type type;
+    private Long petId;
+    /** The pet after the change, absent for deletes. */
+    private PetResponse pet;
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /** The client missed changes that are no longer buffered and has to reload what it tracks. */
+        RESYNC
+    }
+}
@@ -0,0 +1,27 @@
+package com.pet.project.transferobjects.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A list of pets as one array per field, entry i of every array belongs to the same pet.
+ * Field names are written once per list instead of once per pet.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PetColumnsResponse {
+    private List<Long> petId;
+    private List<String> name;
+    private List<String> species;
+    private List<Integer> age;
+    /** Opaque cursor for the next page, absent on the last page and for full lists. */
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.pet.project.transferobjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PetFieldsPageResponse {
+    /** Pets holding only the requested fields. */
+    private List<Map<String, Object>> items;
+    /** Opaque cursor for the next page, {@code null} when this is the last page. */
+    private String nextCursor;
+}
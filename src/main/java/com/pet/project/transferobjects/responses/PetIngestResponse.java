@@ -0,0 +1,29 @@
+package com.pet.project.transferobjects.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PetIngestResponse {
+
+    public enum Status {
+        QUEUED,
+        APPLIED,
+        FAILED
+    }
+
+    private String token;
+    private Status status;
+    /** Known for patches from the start, for creates once they are applied. */
+    private Long petId;
+    private List<String> errors;
+}
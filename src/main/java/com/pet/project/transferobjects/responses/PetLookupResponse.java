@@ -0,0 +1,19 @@
+package com.pet.project.transferobjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PetLookupResponse {
+    /** The pets found, in the order of the requested ids. */
+    private List<PetResponse> pets;
+    /** The requested ids that do not exist. */
+    private List<Long> missing;
+}
@@ -0,0 +1,18 @@
+package com.pet.project.transferobjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PetPageResponse {
+    private List<PetResponse> items;
+    /** Opaque cursor for the next page, {@code null} when this is the last page. */
+    private String nextCursor;
+}
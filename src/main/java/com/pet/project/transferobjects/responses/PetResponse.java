@@ -1,5 +1,6 @@
 package com.pet.project.transferobjects.responses;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.pet.project.transferobjects.PetDetails;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -16,4 +17,8 @@ import lombok.extern.slf4j.Slf4j;
 @NoArgsConstructor
 public class PetResponse extends PetDetails {
     private Long petId;
+
+    /** Row version, sent to clients as the ETag header rather than in the body. */
+    @JsonIgnore
+    private Long version;
 }
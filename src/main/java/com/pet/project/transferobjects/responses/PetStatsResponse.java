@@ -0,0 +1,21 @@
+package com.pet.project.transferobjects.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PetStatsResponse {
+    private long total;
+    private Map<String, Long> bySpecies;
+    private Map<String, Long> byOwner;
+    private Map<String, Long> ageHistogram;
+    private Instant reconciledAt;
+}
@@ -0,0 +1,21 @@
+-- Schema as previously created by ddl-auto: update. Every statement is idempotent, so databases that
+-- already have it only get the Flyway history table.
+
+CREATE TABLE IF NOT EXISTS petdb.pets (
+    pet_id     BIGINT      NOT NULL,
+    name       VARCHAR(64) NOT NULL,
+    species    VARCHAR(64) NOT NULL,
+    owner_name VARCHAR(64),
+    age        INT,
+    version    BIGINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (pet_id)
+) ENGINE = InnoDB;
+
+-- Pooled id allocation, the increment must match allocationSize of PetEntity.
+CREATE SEQUENCE IF NOT EXISTS petdb.pets_seq START WITH 1 INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_pets_species_name ON petdb.pets (species, name);
+CREATE INDEX IF NOT EXISTS idx_pets_species_age ON petdb.pets (species, age);
+CREATE INDEX IF NOT EXISTS idx_pets_owner_name ON petdb.pets (owner_name);
+CREATE INDEX IF NOT EXISTS idx_pets_name ON petdb.pets (name);
+CREATE INDEX IF NOT EXISTS idx_pets_age ON petdb.pets (age);
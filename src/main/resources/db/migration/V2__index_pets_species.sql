@@ -0,0 +1,4 @@
+-- (species, name) and (species, age) continue with pet_id only after name and age, so a species filter
+-- could not seek on the keyset cursor and sorted every pet of the species per page. An index on species
+-- alone is (species, pet_id) in InnoDB and serves species = ? AND pet_id > ? ORDER BY pet_id directly.
+CREATE INDEX IF NOT EXISTS idx_pets_species ON petdb.pets (species);
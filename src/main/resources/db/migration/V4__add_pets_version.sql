@@ -0,0 +1,5 @@
+-- Tables created by ddl-auto before row versions existed have no version column, and CREATE TABLE IF NOT
+-- EXISTS in V1 leaves them as they are. Those that got it from a later ddl-auto run may hold NULLs.
+ALTER TABLE petdb.pets ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0;
+UPDATE petdb.pets SET version = 0 WHERE version IS NULL;
+ALTER TABLE petdb.pets MODIFY COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,362 @@
+package com.pet.project.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test: starts the application with the loadtest profile (in-memory H2) in a new JVM, seeds
+ * pets, then sends a weighted mix of get, list, create, patch and delete requests at a fixed arrival rate.
+ * <p>
+ * Every request has an intended start time on the arrival schedule and is sent on its own virtual thread,
+ * whether or not earlier requests have answered. Latency is measured from the intended start, so a stalled
+ * server shows up in the percentiles instead of silently lowering the send rate (coordinated omission).
+ * The time from the actual send is reported as well, the gap between both is time spent waiting to send.
+ * <p>
+ * Requests are spread over a number of clients, the way admission control sees them; the loadtest profile
+ * trusts their X-Client-Id header. It keeps limiting every client, so a high rate needs enough clients or
+ * the answers are mostly 429.
+ * <p>
+ * Arguments: java executable, application classpath, report directory, then {@code name=value} options,
+ * see {@link #DEFAULTS}. Percentile distributions are written to the report directory as .hgrm files.
+ */
+public final class LoadTestRunner {
+
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "pets", "10000",
+            "rate", "200",
+            "warmupSeconds", "10",
+            "durationSeconds", "30",
+            "clients", "100",
+            "mix", "get=70,list=10,create=10,patch=8,delete=2");
+
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SEED_BATCH_SIZE = 1000;
+    private static final int PAGE_SIZE = 50;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final String[] SPECIES = {"Dog", "Cat", "Parrot", "Rabbit", "Hamster"};
+    private static final String CLIENT_HEADER = "X-Client-Id";
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private enum Operation {
+        GET, LIST, CREATE, PATCH, DELETE
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final int clients;
+    private final List<Long> seededIds = new ArrayList<>();
+    private final ConcurrentLinkedDeque<Long> createdIds = new ConcurrentLinkedDeque<>();
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Histogram allLatencies = newHistogram();
+    private final Histogram allServiceTimes = newHistogram();
+
+    private LoadTestRunner(String baseUrl, int clients) {
+        this.baseUrl = baseUrl;
+        this.clients = clients;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, newHistogram());
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String java = args[0];
+        String classpath = args[1];
+        Path reports = Files.createDirectories(Path.of(args[2]));
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (int i = 3; i < args.length; i++) {
+            String[] option = args[i].split("=", 2);
+            if (!DEFAULTS.containsKey(option[0]) || option.length != 2) {
+                throw new IllegalArgumentException("Unknown option " + args[i] + ", expected one of " + DEFAULTS.keySet());
+            }
+            options.put(option[0], option[1]);
+        }
+        int pets = Integer.parseInt(options.get("pets"));
+        double rate = Double.parseDouble(options.get("rate"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmupSeconds")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("durationSeconds")));
+        int clients = Integer.parseInt(options.get("clients"));
+        Operation[] schedule = parseMix(options.get("mix"));
+
+        int port = freePort();
+        Path log = reports.resolve("application.log");
+        Process application = new ProcessBuilder(java, "-cp", classpath, "com.pet.project.ProjectApplication",
+                "--spring.profiles.active=loadtest", "--server.port=" + port)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            LoadTestRunner runner = new LoadTestRunner("http://localhost:" + port, clients);
+            runner.awaitStarted(application, log);
+            runner.seed(pets);
+            System.out.printf("Seeded %d pets, warming up for %ds, then measuring %ds at %.0f requests/s%n",
+                    pets, warmup.toSeconds(), duration.toSeconds(), rate);
+            runner.run(schedule, rate, warmup, false);
+            runner.run(schedule, rate, duration, true);
+            runner.report(duration, reports);
+        } finally {
+            application.destroy();
+            if (!application.waitFor(30, TimeUnit.SECONDS)) {
+                application.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    /**
+     * The mix as a table of 100 slots, so picking an operation is one random index.
+     */
+    private static Operation[] parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        int total = 0;
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split("=", 2);
+            int value = Integer.parseInt(weight[1].trim());
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), value);
+            total += value;
+        }
+        List<Operation> slots = new ArrayList<>();
+        for (Map.Entry<Operation, Integer> weight : weights.entrySet()) {
+            long count = Math.round(weight.getValue() * 100.0 / total);
+            for (long i = 0; i < count; i++) {
+                slots.add(weight.getKey());
+            }
+        }
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("The mix must have a positive weight: " + mix);
+        }
+        return slots.toArray(Operation[]::new);
+    }
+
+    private void awaitStarted(Process application, Path log) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).build();
+        long deadline = System.nanoTime() + START_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!application.isAlive()) {
+                throw new IllegalStateException("The application exited with " + application.exitValue() + ", see " + log);
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("The application did not start within " + START_TIMEOUT + ", see " + log);
+    }
+
+    private void seed(int pets) throws IOException, InterruptedException {
+        for (int from = 0; from < pets; from += SEED_BATCH_SIZE) {
+            ArrayNode batch = JSON.createArrayNode();
+            for (int i = from; i < Math.min(from + SEED_BATCH_SIZE, pets); i++) {
+                batch.add(newPet());
+            }
+            HttpResponse<String> response = client.send(post("/pet/batch", batch), HttpResponse.BodyHandlers.ofString());
+            while (response.statusCode() == 429) {
+                // Batches are expensive for admission control, seeding waits for tokens like any client.
+                long retryAfter = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                Thread.sleep(TimeUnit.SECONDS.toMillis(retryAfter));
+                response = client.send(post("/pet/batch", batch), HttpResponse.BodyHandlers.ofString());
+            }
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode item : JSON.readTree(response.body()).path("items")) {
+                seededIds.add(item.path("pet").path("petId").asLong());
+            }
+        }
+    }
+
+    /**
+     * Sends requests on the arrival schedule for the given time. The schedule does not wait for answers,
+     * only the last requests of a phase are awaited before it ends.
+     */
+    private void run(Operation[] schedule, double rate, Duration duration, boolean record) throws InterruptedException {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intended = start; intended < end; intended += interval) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+                long intendedStart = intended;
+                executor.execute(() -> send(operation, intendedStart, record));
+            }
+        }
+    }
+
+    private void send(Operation operation, long intendedStart, boolean record) {
+        long sent = System.nanoTime();
+        boolean failed;
+        try {
+            failed = !succeeded(operation, execute(operation));
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long done = System.nanoTime();
+        if (record) {
+            long latency = Math.min(done - intendedStart, HIGHEST_TRACKABLE_NANOS);
+            latencies.get(operation).recordValue(latency);
+            allLatencies.recordValue(latency);
+            allServiceTimes.recordValue(Math.min(done - sent, HIGHEST_TRACKABLE_NANOS));
+            if (failed) {
+                errors.get(operation).increment();
+            }
+        }
+    }
+
+    private HttpResponse<String> execute(Operation operation) throws IOException, InterruptedException {
+        HttpRequest request = switch (operation) {
+            case GET -> get("/pet/" + randomSeededId());
+            case LIST -> get("/pet?limit=" + PAGE_SIZE + "&after=" + cursor(randomSeededId()));
+            case CREATE -> post("/pet", newPet());
+            case PATCH -> request("/pet/" + randomSeededId())
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", body(JSON.createObjectNode().put("age", ThreadLocalRandom.current().nextInt(20))))
+                    .build();
+            case DELETE -> {
+                // Deletes pets this run created, so gets and patches keep finding the seeded ones.
+                Long petId = createdIds.pollFirst();
+                yield request("/pet/" + (petId == null ? randomSeededId() : petId))
+                        .DELETE()
+                        .build();
+            }
+        };
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (operation == Operation.CREATE && response.statusCode() == 200) {
+            createdIds.add(JSON.readTree(response.body()).path("petId").asLong());
+        }
+        return response;
+    }
+
+    /** A pet that is gone already is not a failure, deletes and gets of the same id race by design. */
+    private static boolean succeeded(Operation operation, HttpResponse<String> response) {
+        int status = response.statusCode();
+        return status / 100 == 2 || (status == 404 && operation != Operation.CREATE && operation != Operation.LIST);
+    }
+
+    private void report(Duration duration, Path reports) throws IOException {
+        PrintStream out = System.out;
+        out.printf("%-10s %10s %8s %12s %10s %10s %10s %10s%n",
+                "operation", "requests", "errors", "requests/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            long failed = errors.get(operation).sum();
+            print(out, operation.name().toLowerCase(), latencies.get(operation), failed, duration);
+            write(reports.resolve(operation.name().toLowerCase() + ".hgrm"), latencies.get(operation));
+        }
+        long failed = errors.values().stream().mapToLong(LongAdder::sum).sum();
+        print(out, "all", allLatencies, failed, duration);
+        print(out, "all/sent", allServiceTimes, failed, duration);
+        write(reports.resolve("all.hgrm"), allLatencies);
+        write(reports.resolve("all-sent.hgrm"), allServiceTimes);
+        out.println("Latency is measured from the scheduled start, all/sent from the actual send. Reports: " + reports);
+    }
+
+    private static void print(PrintStream out, String name, Histogram histogram, long failed, Duration duration) {
+        long count = histogram.getTotalCount();
+        out.printf("%-10s %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f%n", name, count, failed,
+                count / (double) duration.toSeconds(),
+                histogram.getValueAtPercentile(50.0) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.0) / NANOS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+
+    private static void write(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+
+    /** Spreads the requests over the simulated clients, each has its own admission control budget. */
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header(CLIENT_HEADER, "load-" + ThreadLocalRandom.current().nextInt(clients));
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).build();
+    }
+
+    private HttpRequest post(String path, JsonNode json) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(body(json))
+                .build();
+    }
+
+    private static HttpRequest.BodyPublisher body(JsonNode json) {
+        return HttpRequest.BodyPublishers.ofString(json.toString());
+    }
+
+    private long randomSeededId() {
+        return seededIds.get(ThreadLocalRandom.current().nextInt(seededIds.size()));
+    }
+
+    private static String cursor(long petId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(petId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static ObjectNode newPet() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return JSON.createObjectNode()
+                .put("name", "Pet" + random.nextInt(1_000_000))
+                .put("species", SPECIES[random.nextInt(SPECIES.length)])
+                .put("ownerName", "Owner" + random.nextInt(1000))
+                .put("age", random.nextInt(20));
+    }
+
+    private static Histogram newHistogram() {
+        return new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
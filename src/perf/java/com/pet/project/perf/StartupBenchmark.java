@@ -0,0 +1,99 @@
+package com.pet.project.perf;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request: starts the application in a new JVM and measures from process start until
+ * {@code GET /pet?limit=1} answers. Runs the plain jar, then the AOT build with the fast profile, then
+ * the AOT build with the CDS archive of the training run.
+ * <p>
+ * Arguments: java executable, boot jar, extracted jar, CDS archive, number of runs per mode, log directory.
+ * The database configured in application.yml must be reachable.
+ */
+public final class StartupBenchmark {
+
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+    private static final String FAST_PROFILE = "-Dspring.profiles.active=fast";
+    private static final String AOT_ENABLED = "-Dspring.aot.enabled=true";
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String java = args[0];
+        Path bootJar = Path.of(args[1]);
+        Path extractedJar = Path.of(args[2]);
+        Path cdsArchive = Path.of(args[3]);
+        int runs = Integer.parseInt(args[4]);
+        Path logs = Files.createDirectories(Path.of(args[5]));
+
+        measure("plain", List.of(java, "-jar", bootJar.toString()), runs, logs);
+        measure("aot", List.of(java, AOT_ENABLED, FAST_PROFILE, "-jar", extractedJar.toString()), runs, logs);
+        measure("aot+cds", List.of(java, "-XX:SharedArchiveFile=" + cdsArchive, AOT_ENABLED, FAST_PROFILE,
+                "-jar", extractedJar.toString()), runs, logs);
+    }
+
+    private static void measure(String mode, List<String> command, int runs, Path logs) throws Exception {
+        List<Long> millis = new ArrayList<>(runs);
+        for (int run = 1; run <= runs; run++) {
+            millis.add(timeToFirstRequest(command, logs.resolve(mode.replace('+', '-') + "-" + run + ".log")));
+        }
+        Collections.sort(millis);
+        System.out.printf("%-8s runs=%d min=%dms median=%dms max=%dms%n", mode, runs,
+                millis.get(0), millis.get(millis.size() / 2), millis.get(millis.size() - 1));
+    }
+
+    private static long timeToFirstRequest(List<String> command, Path log) throws Exception {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/pet?limit=1")).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(withPort)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + START_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The application exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                } catch (IOException e) {
+                    // Not listening yet.
+                    Thread.sleep(POLL_INTERVAL.toMillis());
+                }
+            }
+            throw new IllegalStateException("The application did not answer within " + START_TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
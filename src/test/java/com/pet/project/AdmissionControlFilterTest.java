@@ -0,0 +1,173 @@
+package com.pet.project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pet.project.admission.AdmissionControlFilter;
+import com.pet.project.config.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private AdmissionProperties properties;
+    private SimpleMeterRegistry registry;
+    private AtomicInteger served;
+    private FilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        properties.setTrustClientHeader(true);
+        // Practically no refill while a test runs, so the burst is all a client gets.
+        properties.setRate(0.001);
+        properties.setBurst(40);
+        registry = new SimpleMeterRegistry();
+        served = new AtomicInteger();
+        chain = (request, response) -> served.incrementAndGet();
+    }
+
+    @Test
+    void testClientOverItsRateGets429() throws Exception {
+        AdmissionControlFilter filter = filter();
+
+        // Two full lists at cost 20 empty the bucket of 40 tokens.
+        assertThat(send(filter, get("/pet", "greedy")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, get("/pet", "greedy")).getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = send(filter, get("/pet", "greedy"));
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(rejected.getHeader(HttpHeaders.RETRY_AFTER))).isPositive();
+        assertThat(served).hasValue(2);
+        assertThat(registry.get(AdmissionControlFilter.REJECTED_METRIC)
+                .tag("class", "expensive").tag("reason", "rate").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testOtherClientsKeepTheirBudget() throws Exception {
+        AdmissionControlFilter filter = filter();
+        send(filter, get("/pet", "greedy"));
+        send(filter, get("/pet", "greedy"));
+
+        assertThat(send(filter, get("/pet", "greedy")).getStatus()).isEqualTo(429);
+        assertThat(send(filter, get("/pet/1", "greedy")).getStatus()).isEqualTo(429);
+        assertThat(send(filter, get("/pet", "polite")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void testCheapRequestsCostLessThanPages() throws Exception {
+        AdmissionControlFilter filter = filter();
+        int pages = 0;
+        int pets = 0;
+
+        while (send(filter, page("pager")).getStatus() == 200) {
+            pages++;
+        }
+        while (send(filter, get("/pet/1", "reader")).getStatus() == 200) {
+            pets++;
+        }
+
+        assertThat(pages).isEqualTo(20);
+        assertThat(pets).isEqualTo(40);
+    }
+
+    @Test
+    void testLookupCostsLikeFullList() throws Exception {
+        AdmissionControlFilter filter = filter();
+        MockHttpServletRequest lookup = new MockHttpServletRequest("POST", "/pet/lookup");
+        lookup.addHeader(properties.getClientHeader(), "looker");
+
+        assertThat(send(filter, lookup).getStatus()).isEqualTo(200);
+        assertThat(send(filter, lookup).getStatus()).isEqualTo(200);
+        assertThat(send(filter, lookup).getStatus()).isEqualTo(429);
+        assertThat(registry.get(AdmissionControlFilter.REJECTED_METRIC)
+                .tag("class", "expensive").tag("reason", "rate").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testSaturatedClassSheds503() throws Exception {
+        properties.setExpensive(new AdmissionProperties.Limits(1, 1, 0, Duration.ofMillis(10)));
+        AdmissionControlFilter filter = filter();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> {
+                filter.doFilter(get("/pet/export", "first"), new MockHttpServletResponse(), slow);
+                return null;
+            });
+            holding.await();
+
+            MockHttpServletResponse shed = send(filter, get("/pet/export", "second"));
+            assertThat(shed.getStatus()).isEqualTo(503);
+            assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+            assertThat(send(filter, get("/pet/1", "second")).getStatus()).isEqualTo(200);
+            release.countDown();
+        }
+        assertThat(send(filter, get("/pet/export", "third")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void testChangeFeedAndOtherPathsAreNotLimited() throws Exception {
+        properties.setBurst(1);
+        AdmissionControlFilter filter = filter();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(send(filter, get("/pet/changes", "subscriber")).getStatus()).isEqualTo(200);
+            assertThat(send(filter, get("/actuator/health", "subscriber")).getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void testClientHeaderIgnoredUnlessTrusted() throws Exception {
+        properties.setTrustClientHeader(false);
+        AdmissionControlFilter filter = filter();
+        send(filter, get("/pet", "first"));
+        send(filter, get("/pet", "second"));
+
+        // Same remote address, so a new id does not bring a new bucket.
+        assertThat(send(filter, get("/pet", "third")).getStatus()).isEqualTo(429);
+    }
+
+    private AdmissionControlFilter filter() {
+        return new AdmissionControlFilter(properties, new ObjectMapper(), registry);
+    }
+
+    private MockHttpServletResponse send(AdmissionControlFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletRequest page(String client) {
+        MockHttpServletRequest request = get("/pet", client);
+        request.setParameter("limit", "10");
+        return request;
+    }
+
+    private MockHttpServletRequest get(String path, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.addHeader(properties.getClientHeader(), client);
+        return request;
+    }
+}
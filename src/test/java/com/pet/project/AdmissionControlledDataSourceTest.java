@@ -0,0 +1,77 @@
+package com.pet.project;
+
+import com.pet.project.datasources.AdmissionControlledDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class AdmissionControlledDataSourceTest {
+
+    private DataSource target;
+    private AdmissionControlledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        dataSource = new AdmissionControlledDataSource(target, 2, 10, TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void testRejectsWhenAllPermitsAreTaken() throws Exception {
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(SQLTransientConnectionException.class);
+        verify(target, times(2)).getConnection();
+    }
+
+    @Test
+    void testCloseReturnsPermitOnce() throws Exception {
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+
+        first.close();
+        first.close();
+
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(1);
+        dataSource.getConnection();
+        assertThat(dataSource.getAvailablePermits()).isZero();
+    }
+
+    @Test
+    void testConnectionEqualsItself() throws Exception {
+        Connection connection = dataSource.getConnection();
+
+        assertThat(connection).isEqualTo(connection);
+        assertThat(connection).isNotEqualTo(dataSource.getConnection());
+        assertThat(connection.hashCode()).isEqualTo(System.identityHashCode(connection));
+    }
+
+    @Test
+    void testCloseClosesThePool() throws Exception {
+        HikariDataSource pool = mock(HikariDataSource.class);
+
+        new AdmissionControlledDataSource(pool, 2, 10, TimeUnit.MILLISECONDS.toNanos(50)).close();
+
+        verify(pool).close();
+    }
+
+    @Test
+    void testFailedConnectReturnsPermit() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLException("down"));
+
+        assertThatThrownBy(() -> dataSource.getConnection()).isInstanceOf(SQLException.class);
+        assertThat(dataSource.getAvailablePermits()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,76 @@
+package com.pet.project;
+
+import com.pet.project.caches.PetCache;
+import com.pet.project.config.PetCacheProperties;
+import com.pet.project.transferobjects.responses.PetResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PetCacheTest {
+
+    private PetCache petCache;
+    private PetResponse buddy;
+
+    @BeforeEach
+    void setUp() {
+        petCache = new PetCache(new PetCacheProperties());
+        buddy = PetResponse.builder().petId(1L).name("Buddy").species("Dog").build();
+    }
+
+    @Test
+    void testSecondLookupIsServedFromCache() {
+        assertThat(petCache.getIfPresent(1L)).isNull();
+        petCache.fill(1L, Optional.of(buddy), petCache.loadStamp(1L));
+
+        assertThat(petCache.getIfPresent(1L)).contains(buddy);
+        assertThat(petCache.stats().getHits()).isEqualTo(1);
+        assertThat(petCache.stats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void testNotFoundIsCachedUntilPut() {
+        petCache.fill(1L, Optional.empty(), petCache.loadStamp(1L));
+
+        assertThat(petCache.getIfPresent(1L)).isEmpty();
+
+        petCache.put(1L, buddy);
+
+        assertThat(petCache.getIfPresent(1L)).contains(buddy);
+    }
+
+    @Test
+    void testEvictForcesReload() {
+        petCache.fill(1L, Optional.of(buddy), petCache.loadStamp(1L));
+        petCache.evict(1L);
+
+        assertThat(petCache.getIfPresent(1L)).isNull();
+    }
+
+    @Test
+    void testFillRacingAnEvictionIsDropped() {
+        long stamp = petCache.loadStamp(1L);
+        // The write commits and evicts while the old row is being loaded.
+        petCache.evict(1L);
+        petCache.fill(1L, Optional.of(buddy), stamp);
+
+        assertThat(petCache.getIfPresent(1L)).isNull();
+        petCache.fill(1L, Optional.of(buddy), petCache.loadStamp(1L));
+        assertThat(petCache.getIfPresent(1L)).contains(buddy);
+    }
+
+    @Test
+    void testDisabledCacheKeepsNothing() {
+        PetCacheProperties properties = new PetCacheProperties();
+        properties.setEnabled(false);
+        PetCache disabled = new PetCache(properties);
+
+        disabled.fill(1L, Optional.of(buddy), disabled.loadStamp(1L));
+
+        assertThat(disabled.getIfPresent(1L)).isNull();
+        assertThat(disabled.stats().isEnabled()).isFalse();
+    }
+}
@@ -0,0 +1,65 @@
+package com.pet.project;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pet.project.controllers.PetController;
+import com.pet.project.services.PetService;
+import com.pet.project.transferobjects.responses.PetResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PetControllerTest {
+
+    private PetService petService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        petService = mock(PetService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new PetController(petService, new ObjectMapper())).build();
+        when(petService.getPetsVersion()).thenReturn("1-1-0");
+        when(petService.listAllPets()).thenReturn(List.of(
+                PetResponse.builder().petId(1L).name("Buddy").species("Dog").build()));
+    }
+
+    @Test
+    void testListAllPetsCarriesETag() throws Exception {
+        mockMvc.perform(get("/pet"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-1-0\""))
+                .andExpect(jsonPath("$[0].name").value("Buddy"));
+    }
+
+    @Test
+    void testListAllPetsAnswers304ForCurrentETag() throws Exception {
+        mockMvc.perform(get("/pet").header(HttpHeaders.IF_NONE_MATCH, "\"1-1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(petService, never()).listAllPets();
+    }
+
+    @Test
+    void testListAllPetColumnsAnswers304ForCurrentETag() throws Exception {
+        mockMvc.perform(get("/pet")
+                        .accept(PetController.COLUMNAR_JSON_VALUE)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-1-0\""))
+                .andExpect(status().isNotModified());
+
+        verify(petService, never()).listAllPetColumns();
+    }
+}
@@ -0,0 +1,88 @@
+package com.pet.project;
+
+import com.pet.project.config.IngestProperties;
+import com.pet.project.ingest.IngestQueueFullException;
+import com.pet.project.ingest.PetIngestQueue;
+import com.pet.project.mappers.PetMapper;
+import com.pet.project.services.PetService;
+import com.pet.project.transferobjects.requests.PetRequest;
+import com.pet.project.transferobjects.responses.PetBatchItemResult;
+import com.pet.project.transferobjects.responses.PetBatchResponse;
+import com.pet.project.transferobjects.responses.PetIngestResponse;
+import com.pet.project.transferobjects.responses.PetResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PetIngestQueueTest {
+
+    private PetService petService;
+    private IngestProperties properties;
+    private PetIngestQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        petService = mock(PetService.class);
+        properties = new IngestProperties();
+        properties.setEnabled(true);
+        queue = new PetIngestQueue(properties, petService, new PetMapper(),
+                mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testPatchesToSamePetAreCoalesced() {
+        when(petService.patchPet(any(Long.class), any(), any())).thenReturn(ResponseEntity.ok(new PetResponse()));
+
+        PetIngestResponse first = queue.enqueuePatch(1L, Map.of("age", 3));
+        PetIngestResponse second = queue.enqueuePatch(1L, Map.of("age", 4, "name", "Rex"));
+
+        assertThat(queue.getDepth()).isEqualTo(1);
+        assertThat(queue.flush()).isEqualTo(1);
+        verify(petService).patchPet(1L, Map.of("age", 4, "name", "Rex"), null);
+        assertThat(queue.getStatus(first.getToken()).getStatus()).isEqualTo(PetIngestResponse.Status.APPLIED);
+        assertThat(queue.getStatus(second.getToken()).getStatus()).isEqualTo(PetIngestResponse.Status.APPLIED);
+    }
+
+    @Test
+    void testCreatesAreAppliedAsOneBatch() {
+        PetRequest buddy = PetRequest.builder().name("Buddy").species("Dog").age(3).build();
+        when(petService.createPets(any())).thenReturn(PetBatchResponse.builder()
+                .created(2)
+                .items(List.of(
+                        PetBatchItemResult.builder().index(0).status(PetBatchItemResult.Status.CREATED)
+                                .pet(PetResponse.builder().petId(7L).build()).build(),
+                        PetBatchItemResult.builder().index(1).status(PetBatchItemResult.Status.CREATED)
+                                .pet(PetResponse.builder().petId(8L).build()).build()))
+                .build());
+
+        PetIngestResponse first = queue.enqueueCreate(buddy);
+        PetIngestResponse second = queue.enqueueCreate(buddy);
+        queue.flush();
+
+        assertThat(queue.getStatus(first.getToken()).getPetId()).isEqualTo(7L);
+        assertThat(queue.getStatus(second.getToken()).getPetId()).isEqualTo(8L);
+        assertThat(queue.getDepth()).isZero();
+    }
+
+    @Test
+    void testFullQueueRejectsWrites() {
+        properties.setCapacity(1);
+        queue.enqueuePatch(1L, Map.of("age", 3));
+
+        queue.enqueuePatch(1L, Map.of("age", 4));
+        assertThatThrownBy(() -> queue.enqueuePatch(2L, Map.of("age", 5)))
+                .isInstanceOf(IngestQueueFullException.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.pet.project;
+
+import com.pet.project.mappers.PetMapper;
+import com.pet.project.repos.PetRow;
+import com.pet.project.transferobjects.responses.PetColumnsResponse;
+import com.pet.project.transferobjects.responses.PetResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class PetMapperTest {
+
+    private final PetMapper petMapper = new PetMapper();
+
+    @Test
+    void testToPatchAttributesKeepsOnlyPatchableFields() {
+        Map<String, Object> updates = new LinkedHashMap<>();
+        updates.put("age", "4");
+        updates.put("ownerName", null);
+        updates.put("petId", 99);
+        updates.put("unknown", "ignored");
+
+        Map<String, Object> attributes = petMapper.toPatchAttributes(updates);
+
+        assertThat(attributes).containsExactly(entry("age", 4), entry("ownerName", null));
+    }
+
+    @Test
+    void testToPatchAttributesRejectsInvalidValues() {
+        assertThatThrownBy(() -> petMapper.toPatchAttributes(Map.of("age", -1))).isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> petMapper.toPatchAttributes(Map.of("age", 1.5))).isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> petMapper.toPatchAttributes(Map.of("name", ""))).isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> petMapper.toPatchAttributes(Map.of("species", 5))).isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> petMapper.toPatchAttributes(Map.of("name", "x".repeat(65))))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void testToPatchAttributesNamesTheAgeBound() {
+        assertThatThrownBy(() -> petMapper.toPatchAttributes(Map.of("age", -1)))
+                .hasMessageContaining("age: must not be negative");
+        assertThatThrownBy(() -> petMapper.toPatchAttributes(Map.of("age", 3_000_000_000L)))
+                .hasMessageContaining("age: must be at most 2147483647");
+    }
+
+    @Test
+    void testToPatchedRowKeepsUnpatchedColumnsAndBumpsVersion() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("age", 4);
+        attributes.put("ownerName", null);
+
+        PetRow patched = petMapper.toPatchedRow(new PetRow(1L, "Buddy", "Dog", "Alice", 3, 7L), attributes);
+
+        assertThat(patched).isEqualTo(new PetRow(1L, "Buddy", "Dog", null, 4, 8L));
+    }
+
+    @Test
+    void testToColumnsKeepsPetsAligned() {
+        List<PetResponse> pets = List.of(
+                PetResponse.builder().petId(1L).name("Buddy").species("Dog").age(3).build(),
+                PetResponse.builder().petId(2L).name("Tom").species("Cat").build());
+
+        PetColumnsResponse columns = petMapper.toColumns(pets, "Mg");
+
+        assertThat(columns.getPetId()).containsExactly(1L, 2L);
+        assertThat(columns.getName()).containsExactly("Buddy", "Tom");
+        assertThat(columns.getSpecies()).containsExactly("Dog", "Cat");
+        assertThat(columns.getAge()).containsExactly(3, null);
+        assertThat(columns.getNextCursor()).isEqualTo("Mg");
+    }
+}
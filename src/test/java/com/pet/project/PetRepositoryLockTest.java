@@ -0,0 +1,71 @@
+package com.pet.project;
+
+import com.pet.project.entities.PetEntity;
+import com.pet.project.repos.PetRepository;
+import com.pet.project.repos.PetRow;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the locking query of a PATCH against the in-memory database of the load test, H2 in MariaDB mode.
+ */
+@ActiveProfiles("loadtest")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.pet.project.PetRepositoryLockTest$RecordingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PetRepositoryLockTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Test
+    void testRowForUpdateLocksTheRow() {
+        PetEntity pet = entityManager.persistFlushFind(PetEntity.builder()
+                .name("Buddy").species("Dog").ownerName("Alice").age(3).build());
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        PetRow row = petRepository.findRowByIdForUpdate(pet.getPetId()).orElseThrow();
+
+        assertThat(row).isEqualTo(new PetRow(pet.getPetId(), "Buddy", "Dog", "Alice", 3, 0L));
+        assertThat(RecordingStatementInspector.STATEMENTS)
+                .singleElement()
+                .satisfies(sql -> assertThat(sql.toLowerCase(Locale.ROOT)).contains(" for update"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testRowForUpdateNeedsATransaction() {
+        assertThatThrownBy(() -> petRepository.findRowByIdForUpdate(1L))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+
+    /** Keeps the SQL Hibernate prepares, Hibernate creates this class itself. */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -1,21 +1,56 @@
 package com.pet.project;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pet.project.caches.PetCache;
+import com.pet.project.caches.PetReadCoalescer;
+import com.pet.project.changes.PetChangeFeed;
+import com.pet.project.config.BatchProperties;
+import com.pet.project.config.CoalescingProperties;
+import com.pet.project.config.LookupProperties;
+import com.pet.project.config.PaginationProperties;
+import com.pet.project.config.PetCacheProperties;
+import com.pet.project.datasources.ReadYourWrites;
 import com.pet.project.entities.PetEntity;
+import com.pet.project.mappers.PetMapper;
+import com.pet.project.repos.PetField;
 import com.pet.project.repos.PetRepository;
+import com.pet.project.repos.PetRow;
 import com.pet.project.services.impl.PetServiceImpl;
+import com.pet.project.stats.PetStats;
 import com.pet.project.transferobjects.requests.PetRequest;
+import com.pet.project.transferobjects.requests.PetSearchRequest;
+import com.pet.project.transferobjects.responses.PetBatchItemResult;
+import com.pet.project.transferobjects.responses.PetBatchResponse;
+import com.pet.project.transferobjects.responses.PetFieldsPageResponse;
+import com.pet.project.transferobjects.responses.PetLookupResponse;
+import com.pet.project.transferobjects.responses.PetPageResponse;
 import com.pet.project.transferobjects.responses.PetResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 class PetServiceImplTest {
@@ -26,6 +61,36 @@ class PetServiceImplTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
+    @Spy
+    private BatchProperties batchProperties = new BatchProperties();
+
+    @Spy
+    private PetCache petCache = new PetCache(disabledCache());
+
+    @Spy
+    private PetMapper petMapper = new PetMapper();
+
+    @Spy
+    private LookupProperties lookupProperties = new LookupProperties();
+
+    @Mock
+    private PetStats petStats;
+
+    @Mock
+    private PetChangeFeed petChangeFeed;
+
+    @Spy
+    private PetReadCoalescer readCoalescer = new PetReadCoalescer(new CoalescingProperties());
+
     @InjectMocks
     private PetServiceImpl petService;
 
@@ -62,20 +127,17 @@ class PetServiceImplTest {
 
     @Test
     void testCreatePet() {
-        when(objectMapper.convertValue(petRequest, PetEntity.class)).thenReturn(petEntity);
-        when(petRepository.save(petEntity)).thenReturn(petEntity);
-        when(objectMapper.convertValue(petEntity, PetResponse.class)).thenReturn(petResponse);
+        when(petRepository.save(any(PetEntity.class))).thenReturn(petEntity);
 
         PetResponse result = petService.createPet(petRequest);
 
         assertThat(result).isEqualTo(petResponse);
-        verify(petRepository).save(petEntity);
+        verify(petRepository).save(argThat((PetEntity e) -> e.getPetId() == null && "Alice".equals(e.getOwnerName())));
     }
 
     @Test
     void testGetPetByIdFound() {
         when(petRepository.findById(1L)).thenReturn(Optional.of(petEntity));
-        when(objectMapper.convertValue(petEntity, PetResponse.class)).thenReturn(petResponse);
 
         PetResponse result = petService.getPetById(1L);
 
@@ -93,57 +155,157 @@ class PetServiceImplTest {
         verify(petRepository).findById(1L);
     }
 
+    @Test
+    void testGetPetByIdReadsThePrimaryOnlyToFillTheCache() {
+        List<Boolean> onPrimary = new ArrayList<>();
+        when(petRepository.findById(anyLong())).thenAnswer(invocation -> {
+            onPrimary.add(ReadYourWrites.isPinned());
+            return Optional.of(petEntity);
+        });
+
+        petService.getPetById(1L);
+        serviceWithCache(new PetCache(new PetCacheProperties())).getPetById(2L);
+
+        assertThat(onPrimary).containsExactly(false, true);
+        assertThat(ReadYourWrites.isPinned()).isFalse();
+    }
+
+    @Test
+    void testLookupPetsKeepsOrderAndReportsMissing() {
+        lookupProperties.setChunkSize(2);
+        when(petRepository.findRowsByIdIn(List.of(3L, 1L))).thenReturn(List.of(
+                new PetRow(1L, "Fido", "Dog", null, 3, 0L), new PetRow(3L, "Nemo", "Fish", null, 1, 0L)));
+        when(petRepository.findRowsByIdIn(List.of(2L))).thenReturn(List.of());
+
+        PetLookupResponse result = petService.lookupPets(List.of(3L, 1L, 2L, 3L));
+
+        assertThat(result.getPets()).extracting(PetResponse::getPetId).containsExactly(3L, 1L);
+        assertThat(result.getMissing()).containsExactly(2L);
+        verify(petRepository, times(2)).findRowsByIdIn(anyList());
+    }
+
+    @Test
+    void testLookupRacingADeleteDoesNotCacheTheOldRow() {
+        PetCache cache = new PetCache(new PetCacheProperties());
+        PetServiceImpl service = serviceWithCache(cache);
+        when(petRepository.findRowsByIdIn(List.of(1L, 2L))).thenAnswer(invocation -> {
+            // The delete of pet 1 commits while the lookup reads the old row.
+            cache.evict(1L);
+            return List.of(new PetRow(1L, "Fido", "Dog", null, 3, 0L));
+        });
+
+        PetLookupResponse result = service.lookupPets(List.of(1L, 2L));
+
+        assertThat(result.getPets()).extracting(PetResponse::getPetId).containsExactly(1L);
+        assertThat(cache.getIfPresent(1L)).isNull();
+        assertThat(cache.getIfPresent(2L)).isEmpty();
+    }
+
     @Test
     void testUpdatePetByIdFound() {
         PetRequest updateRequest = petRequest;
 
-        when(petRepository.findById(1L)).thenReturn(Optional.of(petEntity));
-        when(objectMapper.convertValue(updateRequest, PetEntity.class)).thenReturn(petEntity);
-        when(petRepository.save(petEntity)).thenReturn(petEntity);
-        when(objectMapper.convertValue(petEntity, PetResponse.class)).thenReturn(petResponse);
+        when(petRepository.updateById(1L, "Buddy", "Dog", "Alice", 3, null)).thenReturn(1);
+        when(petRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
 
-        ResponseEntity<PetResponse> response = petService.updatePetById(1L, updateRequest);
+        ResponseEntity<PetResponse> response = petService.updatePetById(1L, updateRequest, null);
 
+        petResponse.setVersion(4L);
         assertThat(response.getBody()).isEqualTo(petResponse);
-        verify(petRepository).save(petEntity);
+        verify(petRepository).updateById(1L, "Buddy", "Dog", "Alice", 3, null);
+        verify(petRepository).findVersionById(1L);
+        verifyNoMoreInteractions(petRepository);
     }
 
     @Test
     void testUpdatePetByIdNotFound() {
-        when(petRepository.findById(1L)).thenReturn(Optional.empty());
+        when(petRepository.updateById(1L, "Buddy", "Dog", "Alice", 3, null)).thenReturn(0);
 
-        ResponseEntity<PetResponse> response = petService.updatePetById(1L, petRequest);
+        ResponseEntity<PetResponse> response = petService.updatePetById(1L, petRequest, null);
 
         assertThat(response.getStatusCodeValue()).isEqualTo(404);
-        verify(petRepository).findById(1L);
+        verify(petRepository).updateById(1L, "Buddy", "Dog", "Alice", 3, null);
         verifyNoMoreInteractions(petRepository);
     }
 
+    @Test
+    void testUpdatePetByIdVersionMismatch() {
+        when(petRepository.updateById(1L, "Buddy", "Dog", "Alice", 3, 7L)).thenReturn(0);
+        when(petRepository.existsById(1L)).thenReturn(true);
+
+        ResponseEntity<PetResponse> response = petService.updatePetById(1L, petRequest, 7L);
+
+        assertThat(response.getStatusCodeValue()).isEqualTo(412);
+    }
+
+    @Test
+    void testUpdatePetByIdWithVersionReturnsNextVersion() {
+        when(petRepository.updateById(1L, "Buddy", "Dog", "Alice", 3, 7L)).thenReturn(1);
+
+        ResponseEntity<PetResponse> response = petService.updatePetById(1L, petRequest, 7L);
+
+        assertThat(response.getBody().getVersion()).isEqualTo(8L);
+    }
+
     @Test
     void testPatchPet() throws Exception {
         Map<String, Object> updates = new HashMap<>();
         updates.put("age", 5);
 
-        PetEntity existing = new PetEntity();
-        existing.setPetId(1L);
-        existing.setAge(4);
+        when(petRepository.findRowByIdForUpdate(1L)).thenReturn(Optional.of(new PetRow(1L, "Buddy", "Dog", "Alice", 3, 2L)));
+        when(petRepository.patchById(1L, Map.of("age", 5), null)).thenReturn(1);
 
-        PetEntity patched = new PetEntity();
-        patched.setPetId(1L);
-        patched.setAge(5);
+        ResponseEntity<PetResponse> result = petService.patchPet(1L, updates, null);
 
-        PetResponse response = new PetResponse();
-        response.setPetId(1L);
-        response.setAge(5);
+        assertThat(result.getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(result.getBody().getName()).isEqualTo("Buddy");
+        assertThat(result.getBody().getAge()).isEqualTo(5);
+        assertThat(result.getBody().getVersion()).isEqualTo(3L);
+        verify(petRepository, never()).save(any());
+        verify(petRepository, never()).findById(any());
+    }
 
-        when(petRepository.findById(1L)).thenReturn(Optional.of(existing));
-        when(petRepository.save(existing)).thenReturn(patched);
-        when(objectMapper.convertValue(patched, PetResponse.class)).thenReturn(response);
+    @Test
+    void testPatchPetNotFound() {
+        when(petRepository.findRowByIdForUpdate(1L)).thenReturn(Optional.empty());
 
-        ResponseEntity<PetResponse> result = petService.patchPet(1L, updates);
+        ResponseEntity<PetResponse> result = petService.patchPet(1L, Map.of("age", 5), null);
 
-        assertThat(result.getStatusCode().is2xxSuccessful()).isTrue();
-        assertThat(result.getBody().getAge()).isEqualTo(5);
+        assertThat(result.getStatusCodeValue()).isEqualTo(404);
+        verify(petRepository, never()).patchById(anyLong(), any(), any());
+    }
+
+    @Test
+    void testPatchPetWithStaleVersion() {
+        when(petRepository.findRowByIdForUpdate(1L)).thenReturn(Optional.of(new PetRow(1L, "Buddy", "Dog", "Alice", 3, 2L)));
+
+        ResponseEntity<PetResponse> result = petService.patchPet(1L, Map.of("age", 5), 1L);
+
+        assertThat(result.getStatusCodeValue()).isEqualTo(412);
+        verify(petRepository, never()).patchById(anyLong(), any(), any());
+        verify(petChangeFeed, never()).updated(any());
+    }
+
+    @Test
+    void testEmptyPatchWithStaleVersionFails() {
+        when(petRepository.findRowByIdForUpdate(1L)).thenReturn(Optional.of(new PetRow(1L, "Buddy", "Dog", "Alice", 3, 2L)));
+
+        ResponseEntity<PetResponse> result = petService.patchPet(1L, Map.of("unknown", "ignored"), 1L);
+
+        assertThat(result.getStatusCodeValue()).isEqualTo(412);
+        verify(petRepository, never()).patchById(anyLong(), any(), any());
+    }
+
+    @Test
+    void testPatchMovesPetInStats() {
+        PetRow before = new PetRow(1L, "Buddy", "Dog", "Alice", 3, 2L);
+        when(petStats.isEnabled()).thenReturn(true);
+        when(petRepository.findRowByIdForUpdate(1L)).thenReturn(Optional.of(before));
+        when(petRepository.patchById(1L, Map.of("species", "Cat"), null)).thenReturn(1);
+
+        petService.patchPet(1L, Map.of("species", "Cat"), null);
+
+        verify(petStats).updated(before, new PetRow(1L, "Buddy", "Cat", "Alice", 3, 3L));
     }
 
     @Test
@@ -170,12 +332,260 @@ class PetServiceImplTest {
     }
 
     @Test
-    void testDeletePetById() {
-        doNothing().when(petRepository).deleteById(1L);
+    void testListPetsFirstPageHasCursor() {
+        paginationProperties.setMaxLimit(2);
+        PetEntity e1 = PetEntity.builder().petId(1L).name("Fido").species("Dog").build();
+        PetEntity e2 = PetEntity.builder().petId(2L).name("Whiskers").species("Cat").build();
+        PetEntity e3 = PetEntity.builder().petId(3L).name("Nemo").species("Fish").build();
+
+        when(petRepository.findByPetIdGreaterThanOrderByPetIdAsc(0L, Limit.of(3))).thenReturn(Arrays.asList(e1, e2, e3));
+
+        PetPageResponse page = petService.listPets(null, 10);
+
+        assertThat(page.getItems()).extracting(PetResponse::getPetId).containsExactly(1L, 2L);
+        assertThat(page.getNextCursor()).isNotNull();
+
+        when(petRepository.findByPetIdGreaterThanOrderByPetIdAsc(2L, Limit.of(3))).thenReturn(List.of(e3));
+
+        PetPageResponse next = petService.listPets(page.getNextCursor(), 10);
+
+        assertThat(next.getItems()).extracting(PetResponse::getPetId).containsExactly(3L);
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    void testSearchPetsPagesProjection() {
+        PetSearchRequest searchRequest = PetSearchRequest.builder().species("Dog").limit(1).build();
+        PetRow fido = new PetRow(4L, "Fido", "Dog", "Alice", 3, 0L);
+        PetRow rex = new PetRow(9L, "Rex", "Dog", "Bob", 5, 0L);
+
+        when(petRepository.search(searchRequest, 0L, 2)).thenReturn(List.of(fido, rex));
+
+        PetPageResponse page = petService.searchPets(searchRequest);
+
+        assertThat(page.getItems()).extracting(PetResponse::getName).containsExactly("Fido");
+        assertThat(page.getNextCursor()).isNotNull();
+        verify(petRepository, never()).findAll();
+    }
+
+    @Test
+    void testListPetFieldsReadsOnlyRequestedColumns() {
+        Set<PetField> fields = EnumSet.of(PetField.NAME);
+        Map<String, Object> fido = new LinkedHashMap<>(Map.of("petId", 1L));
+        fido.put("name", "Fido");
+        Map<String, Object> rex = new LinkedHashMap<>(Map.of("petId", 2L));
+        rex.put("name", "Rex");
+        when(petRepository.searchFields(eq(fields), any(PetSearchRequest.class), eq(0L), eq(2)))
+                .thenReturn(new ArrayList<>(List.of(fido, rex)));
+
+        PetFieldsPageResponse page = petService.listPetFields(null, 1, "name");
+
+        assertThat(page.getItems()).containsExactly(Map.of("name", "Fido"));
+        assertThat(page.getNextCursor()).isNotNull();
+        verify(petRepository, never()).search(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testListPetFieldsRejectsUnknownField() {
+        assertThatThrownBy(() -> petService.listPetFields(null, null, "name,password"))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(petRepository);
+    }
+
+    @Test
+    void testUpdateMarksStatsWithoutReadingTheRow() {
+        when(petStats.isEnabled()).thenReturn(true);
+        when(petRepository.updateById(1L, "Buddy", "Dog", "Alice", 3, null)).thenReturn(1);
+        when(petRepository.findVersionById(1L)).thenReturn(Optional.of(1L));
+
+        petService.updatePetById(1L, petRequest, null);
+
+        verify(petStats).changed();
+        verify(petRepository, never()).findRowByIdForUpdate(anyLong());
+    }
+
+    @Test
+    void testDeleteOfMissingPetLeavesStats() {
+        when(petStats.isEnabled()).thenReturn(true);
+        when(petRepository.deletePet(1L)).thenReturn(0);
+
+        petService.deletePetById(1L);
+
+        verify(petStats, never()).changed();
+    }
+
+    @Test
+    void testDeletePublishesChangeOnlyWhenRowDeleted() {
+        when(petRepository.deletePet(1L)).thenReturn(1);
+        when(petRepository.deletePet(2L)).thenReturn(0);
+
+        petService.deletePetById(1L);
+        petService.deletePetById(2L);
+
+        verify(petChangeFeed).deleted(1L);
+        verify(petChangeFeed, never()).deleted(2L);
+    }
+
+    @Test
+    void testDeleteMarksStatsWithoutReadingTheRow() {
+        when(petStats.isEnabled()).thenReturn(true);
+        when(petRepository.deletePet(1L)).thenReturn(1);
 
         petService.deletePetById(1L);
 
-        verify(petRepository, times(1)).deleteById(1L);
+        verify(petStats).changed();
+        verify(petRepository, never()).findRowByIdForUpdate(anyLong());
+    }
+
+    @Test
+    void testCreatePetsFlushesEveryBatch() {
+        batchProperties.setSize(2);
+        AtomicLong ids = new AtomicLong();
+        when(petRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PetEntity> entities = invocation.getArgument(0);
+            entities.forEach(e -> e.setPetId(ids.incrementAndGet()));
+            return entities;
+        });
+        List<PetRequest> requests = Arrays.asList(petRequest, null, petRequest, petRequest);
+
+        PetBatchResponse result = petService.createPets(requests.iterator());
+
+        assertThat(result.getCreated()).isEqualTo(3);
+        assertThat(result.getInvalid()).isEqualTo(1);
+        assertThat(result.getItems()).extracting(PetBatchItemResult::getStatus).containsExactly(
+                PetBatchItemResult.Status.CREATED, PetBatchItemResult.Status.INVALID,
+                PetBatchItemResult.Status.CREATED, PetBatchItemResult.Status.CREATED);
+        verify(petRepository, times(2)).saveAll(anyList());
+        verify(petRepository, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void testCreatePetsReportsOverLongItemAsInvalid() {
+        when(petRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PetEntity> entities = invocation.getArgument(0);
+            entities.forEach(e -> e.setPetId(1L));
+            return entities;
+        });
+        PetRequest tooLong = PetRequest.builder().name("x".repeat(65)).species("Dog").ownerName("Alice").build();
+
+        PetBatchResponse result = petService.createPets(List.of(petRequest, tooLong).iterator());
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getItems()).extracting(PetBatchItemResult::getStatus).containsExactly(
+                PetBatchItemResult.Status.CREATED, PetBatchItemResult.Status.INVALID);
+        assertThat(result.getItems().get(1).getErrors()).singleElement().asString().startsWith("name:");
+        verify(petRepository).saveAll(argThat((List<PetEntity> entities) -> entities.size() == 1));
+    }
+
+    @Test
+    void testRolledBackBatchLeavesCacheEmpty() {
+        PetCache cache = new PetCache(new PetCacheProperties());
+        PetServiceImpl service = serviceWithCache(cache);
+        batchProperties.setSize(1);
+        batchProperties.setMaxItems(2);
+        stubSaveAllWithIds();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThatThrownBy(() -> service.createPets(List.of(petRequest, petRequest, petRequest).iterator()))
+                    .isInstanceOf(ResponseStatusException.class);
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.getIfPresent(1L)).isNull();
+        assertThat(cache.getIfPresent(2L)).isNull();
+    }
+
+    @Test
+    void testCommittedBatchIsCached() {
+        PetCache cache = new PetCache(new PetCacheProperties());
+        PetServiceImpl service = serviceWithCache(cache);
+        stubSaveAllWithIds();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.createPets(List.of(petRequest).iterator());
+            assertThat(cache.getIfPresent(1L)).isNull();
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.getIfPresent(1L)).hasValueSatisfying(pet -> assertThat(pet.getName()).isEqualTo("Buddy"));
+    }
+
+    @Test
+    void testConcurrentMissesShareOneQueryWithCacheEnabled() throws Exception {
+        PetCache cache = new PetCache(new PetCacheProperties());
+        PetServiceImpl service = serviceWithCache(cache);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        readCoalescer.bindTo(registry);
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(petRepository.findById(1L)).thenAnswer(invocation -> {
+            querying.countDown();
+            release.await();
+            return Optional.of(petEntity);
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<PetResponse> first = executor.submit(() -> service.getPetById(1L));
+            querying.await();
+            Future<PetResponse> second = executor.submit(() -> service.getPetById(1L));
+            while (registry.get("pet.coalescing.saved").tag("read", "byId").functionCounter().count() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(first.get()).isEqualTo(petResponse);
+            assertThat(second.get()).isEqualTo(petResponse);
+        }
+        verify(petRepository, times(1)).findById(1L);
+        assertThat(cache.getIfPresent(1L)).contains(petResponse);
+    }
+
+    @Test
+    void testDeletePetById() {
+        when(petRepository.deletePet(1L)).thenReturn(1);
+
+        ResponseEntity<Void> response = petService.deletePetById(1L);
+
+        assertThat(response.getStatusCodeValue()).isEqualTo(200);
+        verify(petRepository, times(1)).deletePet(1L);
+        verifyNoMoreInteractions(petRepository);
+    }
+
+    @Test
+    void testDeletePetByIdNotFound() {
+        when(petRepository.deletePet(1L)).thenReturn(0);
+
+        ResponseEntity<Void> response = petService.deletePetById(1L);
+
+        assertThat(response.getStatusCodeValue()).isEqualTo(404);
+    }
+
+    private PetServiceImpl serviceWithCache(PetCache cache) {
+        return new PetServiceImpl(objectMapper, petRepository, paginationProperties, entityManager, validator,
+                batchProperties, cache, petMapper, lookupProperties, petStats, petChangeFeed, readCoalescer);
+    }
+
+    private void stubSaveAllWithIds() {
+        AtomicLong ids = new AtomicLong();
+        when(petRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PetEntity> entities = invocation.getArgument(0);
+            entities.forEach(e -> e.setPetId(ids.incrementAndGet()));
+            return entities;
+        });
+    }
+
+    private static PetCacheProperties disabledCache() {
+        PetCacheProperties properties = new PetCacheProperties();
+        properties.setEnabled(false);
+        return properties;
     }
 
 }
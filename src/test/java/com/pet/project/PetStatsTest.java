@@ -0,0 +1,138 @@
+package com.pet.project;
+
+import com.pet.project.config.PetStatsProperties;
+import com.pet.project.repos.PetRepository;
+import com.pet.project.repos.PetRow;
+import com.pet.project.stats.PetStats;
+import com.pet.project.transferobjects.responses.PetStatsResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PetStatsTest {
+
+    private PetRepository petRepository;
+    private PetStats petStats;
+
+    @BeforeEach
+    void setUp() {
+        petRepository = mock(PetRepository.class);
+        petStats = new PetStats(new PetStatsProperties(), petRepository, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void testWritesAdjustCounters() {
+        PetRow buddy = new PetRow(1L, "Buddy", "Dog", "Alice", 3, 0L);
+        PetRow tom = new PetRow(2L, "Tom", "Cat", "Alice", 7, 0L);
+
+        petStats.created(buddy);
+        petStats.created(tom);
+        petStats.updated(tom, new PetRow(2L, "Tom", "Cat", "Bob", 12, 1L));
+        petStats.updated(buddy, new PetRow(1L, "Buddy", "Cat", "Alice", 3, 1L));
+
+        PetStatsResponse stats = petStats.snapshot();
+        assertThat(stats.getTotal()).isEqualTo(2);
+        assertThat(stats.getBySpecies()).isEqualTo(Map.of("Cat", 2L));
+        assertThat(stats.getByOwner()).isEqualTo(Map.of("Alice", 1L, "Bob", 1L));
+        assertThat(stats.getAgeHistogram()).isEqualTo(Map.of("0-4", 1L, "10-14", 1L));
+    }
+
+    @Test
+    void testChangeWithoutRowIsRecountedOnce() {
+        petStats.recountIfChanged();
+        verify(petRepository, never()).countBySpecies();
+
+        petStats.changed();
+        petStats.changed();
+        petStats.recountIfChanged();
+        petStats.recountIfChanged();
+
+        verify(petRepository, times(1)).countBySpecies();
+    }
+
+    @Test
+    void testReconcileReplacesCounters() {
+        petStats.created(new PetRow(1L, "Buddy", "Dog", "Alice", 3, 0L));
+        when(petRepository.countBySpecies()).thenReturn(List.of(group("Cat", 2), group(null, 1)));
+        when(petRepository.countByOwnerName()).thenReturn(List.of(group("Bob", 3)));
+        when(petRepository.countByAge()).thenReturn(List.of(age(1, 1), age(4, 1), age(null, 1)));
+
+        petStats.reconcile();
+
+        PetStatsResponse stats = petStats.snapshot();
+        assertThat(stats.getTotal()).isEqualTo(3);
+        assertThat(stats.getBySpecies()).isEqualTo(Map.of("Cat", 2L, PetStats.UNKNOWN, 1L));
+        assertThat(stats.getByOwner()).isEqualTo(Map.of("Bob", 3L));
+        assertThat(stats.getAgeHistogram()).containsExactly(Map.entry("0-4", 2L), Map.entry(PetStats.UNKNOWN, 1L));
+        assertThat(stats.getReconciledAt()).isNotNull();
+    }
+
+    @Test
+    void testChangeCommittedDuringReconcileIsKept() {
+        when(petRepository.countBySpecies()).thenAnswer(invocation -> {
+            // Committed after the snapshot of the rebuild was taken.
+            petStats.created(new PetRow(2L, "Tom", "Cat", "Bob", 7, 0L));
+            return List.of(group("Dog", 1));
+        });
+        when(petRepository.countByOwnerName()).thenReturn(List.of(group("Alice", 1)));
+        when(petRepository.countByAge()).thenReturn(List.of(age(3, 1)));
+
+        petStats.reconcile();
+
+        PetStatsResponse stats = petStats.snapshot();
+        assertThat(stats.getTotal()).isEqualTo(2);
+        assertThat(stats.getBySpecies()).isEqualTo(Map.of("Dog", 1L, "Cat", 1L));
+        assertThat(stats.getByOwner()).isEqualTo(Map.of("Alice", 1L, "Bob", 1L));
+    }
+
+    @Test
+    void testRebuildRunsInOneRepeatableReadTransaction() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        new PetStats(new PetStatsProperties(), petRepository, transactionManager).reconcile();
+
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()
+                && definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+        verify(transactionManager).commit(any());
+    }
+
+    private static PetRepository.GroupCount group(String name, long total) {
+        return new PetRepository.GroupCount() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    private static PetRepository.AgeCount age(Integer age, long total) {
+        return new PetRepository.AgeCount() {
+            @Override
+            public Integer getAge() {
+                return age;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
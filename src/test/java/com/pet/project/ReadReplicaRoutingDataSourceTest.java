@@ -0,0 +1,112 @@
+package com.pet.project;
+
+import com.pet.project.datasources.ReadReplicaRoutingDataSource;
+import com.pet.project.datasources.ReadYourWrites;
+import com.pet.project.datasources.ReplicaHealth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routes between two embedded databases that each know their own name.
+ */
+class ReadReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.unpin();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void testReadOnlyTransactionUsesReplica() {
+        Routing routing = new Routing(replica);
+
+        assertThat(routing.whoAnswers(true)).isEqualTo("replica");
+        assertThat(routing.whoAnswers(false)).isEqualTo("primary");
+    }
+
+    @Test
+    void testPinnedClientReadsFromPrimary() {
+        Routing routing = new Routing(replica);
+
+        ReadYourWrites.pin();
+
+        assertThat(routing.whoAnswers(true)).isEqualTo("primary");
+    }
+
+    @Test
+    void testCacheFillReadsFromPrimaryAndKeepsRequestUnpinned() {
+        Routing routing = new Routing(replica);
+
+        assertThat(ReadYourWrites.onPrimary(() -> routing.whoAnswers(true))).isEqualTo("primary");
+        assertThat(ReadYourWrites.isPinned()).isFalse();
+        assertThat(routing.whoAnswers(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void testUnreachableReplicaFallsBackToPrimary() throws SQLException {
+        DataSource down = mock(DataSource.class);
+        when(down.getConnection()).thenThrow(new SQLException("Connection refused"));
+        Routing routing = new Routing(down);
+
+        assertThat(routing.whoAnswers(true)).isEqualTo("primary");
+        assertThat(routing.health.isHealthy()).isFalse();
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table whoami (name varchar(16))");
+        jdbcTemplate.update("insert into whoami (name) values (?)", name);
+        return database;
+    }
+
+    private final class Routing {
+        private final ReplicaHealth health;
+        private final JdbcTemplate jdbcTemplate;
+        private final DataSourceTransactionManager transactionManager;
+
+        private Routing(DataSource replicaDataSource) {
+            health = new ReplicaHealth(replicaDataSource, 1);
+            DataSource dataSource = new LazyConnectionDataSourceProxy(
+                    new ReadReplicaRoutingDataSource(primary, replicaDataSource, health));
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            transactionManager = new DataSourceTransactionManager(dataSource);
+        }
+
+        private String whoAnswers(boolean readOnly) {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(readOnly);
+            return transactionTemplate.execute(
+                    status -> jdbcTemplate.queryForObject("select name from whoami", String.class));
+        }
+    }
+}
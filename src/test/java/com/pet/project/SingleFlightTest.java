@@ -0,0 +1,126 @@
+package com.pet.project;
+
+import com.pet.project.caches.SingleFlight;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    @Test
+    void testConcurrentCallsForSameKeyShareOneCall() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flight.execute(1L, () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "Buddy";
+            }));
+            started.await();
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 1; i < CALLERS; i++) {
+                followers.add(executor.submit(() -> flight.execute(1L, () -> {
+                    calls.incrementAndGet();
+                    return "other";
+                })));
+            }
+            while (flight.getSavedCalls() < CALLERS - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(leader.get()).isEqualTo("Buddy");
+            for (Future<String> follower : followers) {
+                assertThat(follower.get()).isEqualTo("Buddy");
+            }
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(flight.getSavedCalls()).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void testCallsAfterCompletionRunAgain() {
+        SingleFlight<Long, Integer> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        AtomicInteger calls = new AtomicInteger();
+
+        flight.execute(1L, calls::incrementAndGet);
+        flight.execute(1L, calls::incrementAndGet);
+
+        assertThat(calls).hasValue(2);
+        assertThat(flight.getSavedCalls()).isZero();
+    }
+
+    @Test
+    void testFollowerGetsLeaderException() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> flight.execute(1L, () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            started.await();
+            Future<String> follower = executor.submit(() -> flight.execute(1L, () -> "unused"));
+            while (flight.getSavedCalls() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThatThrownBy(follower::get)
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("database down");
+        }
+    }
+
+    @Test
+    void testFollowerTimesOut() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> leader = executor.submit(() -> flight.execute(1L, () -> {
+                started.countDown();
+                await(release);
+                return "Buddy";
+            }));
+            started.await();
+
+            assertThatThrownBy(() -> flight.execute(1L, () -> "unused"))
+                    .isInstanceOf(QueryTimeoutException.class);
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("Buddy");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}